@@ -0,0 +1,55 @@
+package entsoe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention on a shared {@link ApiRateLimiter}. Run with -t to change the number of threads.
+ * <ul>
+ *     <li>{@link #exhausted()}: the limit of the API is used up, every call is rejected without a write.</li>
+ *     <li>{@link #unlimited()}: every call is granted, so every call updates the shared state.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ApiRateLimiterBenchmark {
+
+    private final ApiRateLimiter exhausted = createExhausted();
+
+    private final ApiRateLimiter unlimited = new ApiRateLimiter(Integer.MAX_VALUE, Duration.ofSeconds(1), Duration.ZERO);
+
+    private static ApiRateLimiter createExhausted() {
+        ApiRateLimiter apiRateLimiter = new ApiRateLimiter(400, Duration.ofDays(1), Duration.ZERO);
+        while (apiRateLimiter.tryAcquire()) {
+            // take the first permit, the next one is minutes away
+        }
+        return apiRateLimiter;
+    }
+
+    @Benchmark
+    public boolean exhausted() {
+        return exhausted.tryAcquire();
+    }
+
+    @Benchmark
+    public boolean unlimited() {
+        return unlimited.tryAcquire();
+    }
+
+}
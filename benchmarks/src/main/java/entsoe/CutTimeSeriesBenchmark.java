@@ -0,0 +1,65 @@
+package entsoe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Truncation of a time series at a cut off date as done by
+ * {@link EntsoeClient#getTimeSeries(EntsoeDate, EntsoeResolution, ZonedDateTime)}.
+ * The cut modifies the map, so every invocation works on a copy. {@link #copy()} measures the copy alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CutTimeSeriesBenchmark {
+
+    @Param({"PT60M", "PT15M"})
+    private EntsoeResolution resolution;
+
+    @Param({"1", "365"})
+    private int days;
+
+    private TreeMap<EntsoeDate, BigDecimal> timeSeries;
+
+    private ZonedDateTime cutOffDate;
+
+    @Setup
+    public void setup() throws IOException {
+        timeSeries = new TreeMap<>();
+        new StaxTimeSeriesParser().parse(new ByteArrayInputStream(Fixtures.document(days)), resolution, timeSeries);
+        // keep the second half
+        cutOffDate = timeSeries.keySet().stream().skip(timeSeries.size() / 2).findFirst().orElseThrow().utcDate();
+    }
+
+    @Benchmark
+    public TreeMap<EntsoeDate, BigDecimal> copy() {
+        return new TreeMap<>(timeSeries);
+    }
+
+    @Benchmark
+    public TreeMap<EntsoeDate, BigDecimal> cutTimeSeries() {
+        TreeMap<EntsoeDate, BigDecimal> res = new TreeMap<>(timeSeries);
+        EntsoeClient.cutTimeSeries(cutOffDate, res);
+        return res;
+    }
+
+}
@@ -0,0 +1,69 @@
+package entsoe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion from and to the ENTSO-E date format and comparison of dates, used for every map key and request URL.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntsoeDateBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private final String[] strings = new String[SIZE];
+    private final EntsoeDate[] dates = new EntsoeDate[SIZE];
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        EntsoeDate start = EntsoeDate.fromENTSOEDateString("202212312300");
+        for (int i = 0; i < SIZE; i++) {
+            dates[i] = EntsoeDate.fromENTSOEDate(start, i, EntsoeResolution.PT15M);
+            strings[i] = dates[i].getEntsoeDateTime();
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (SIZE - 1);
+        return index;
+    }
+
+    @Benchmark
+    public EntsoeDate fromENTSOEDateString() {
+        return EntsoeDate.fromENTSOEDateString(strings[next()]);
+    }
+
+    @Benchmark
+    public String getEntsoeDateTime() {
+        return dates[next()].getEntsoeDateTime();
+    }
+
+    @Benchmark
+    public int compareTo() {
+        int i = next();
+        return dates[i].compareTo(dates[(i + 1) & (SIZE - 1)]);
+    }
+
+    @Benchmark
+    public EntsoeDate fromENTSOEDate() {
+        return EntsoeDate.fromENTSOEDate(dates[next()], 1, EntsoeResolution.PT15M);
+    }
+
+}
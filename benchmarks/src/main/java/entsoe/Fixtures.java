@@ -0,0 +1,64 @@
+package entsoe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Recorded A44 documents used by the benchmarks.
+ */
+final class Fixtures {
+
+    /**
+     * A day ahead document for DE_LU on 2023-01-01 with a PT60M and a PT15M period.
+     */
+    static final String DAY = "/entsoe/A44_DE_LU_20230101.xml";
+
+    private static final String FIRST_START = "2022-12-31T23:00Z";
+    private static final String FIRST_END = "2023-01-01T23:00Z";
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm'Z'");
+
+    private Fixtures() {
+    }
+
+    /**
+     * @param days the number of delivery days
+     * @return the recorded day document or, for more than one day, a document with the time series of the
+     * recorded day repeated for each consecutive day, like the API returns it for a range request
+     */
+    static byte[] document(int days) {
+        String day = read(DAY);
+        if (days == 1) {
+            return day.getBytes(StandardCharsets.UTF_8);
+        }
+        int first = day.indexOf("<TimeSeries>");
+        int last = day.lastIndexOf("</TimeSeries>") + "</TimeSeries>".length();
+        String timeSeries = day.substring(first, last);
+        ZonedDateTime start = ZonedDateTime.of(2022, 12, 31, 23, 0, 0, 0, ZoneOffset.UTC);
+        StringBuilder res = new StringBuilder(day.length() * days);
+        res.append(day, 0, first);
+        for (int i = 0; i < days; i++) {
+            res.append(timeSeries
+                    .replace(FIRST_END, FORMATTER.format(start.plusDays(i + 1)))
+                    .replace(FIRST_START, FORMATTER.format(start.plusDays(i))));
+        }
+        res.append(day, last, day.length());
+        return res.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing test document: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
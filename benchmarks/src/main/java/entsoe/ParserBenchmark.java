@@ -0,0 +1,65 @@
+package entsoe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of recorded A44 documents, as done by the client for every response.
+ * {@link #timeSeries()} produces the same TreeMap as {@link EntsoeClient#getTimeSeries(EntsoeDate, EntsoeResolution)},
+ * {@link #priceSeries()} the result of {@link EntsoeClient#getPriceSeries(EntsoeDate, EntsoeResolution)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"PT60M", "PT15M"})
+    private EntsoeResolution resolution;
+
+    @Param({"1", "365"})
+    private int days;
+
+    @Param({"STAX", "DOM"})
+    private String parserType;
+
+    private byte[] document;
+
+    private TimeSeriesParser parser;
+
+    @Setup
+    public void setup() {
+        document = Fixtures.document(days);
+        parser = parserType.equals("DOM") ? new DomTimeSeriesParser() : new StaxTimeSeriesParser();
+    }
+
+    @Benchmark
+    public TreeMap<EntsoeDate, BigDecimal> timeSeries() throws IOException {
+        TreeMap<EntsoeDate, BigDecimal> res = new TreeMap<>();
+        parser.parse(new ByteArrayInputStream(document), resolution, res);
+        return res;
+    }
+
+    @Benchmark
+    public PriceSeries priceSeries() throws IOException {
+        return parser.parse(new ByteArrayInputStream(document), resolution);
+    }
+
+}
@@ -0,0 +1,60 @@
+package entsoe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduling queries of {@link PriceAnalytics} on the prices of one or two days, as sent by devices after each auction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceAnalyticsBenchmark {
+
+    @Param({"PT60M", "PT15M"})
+    private EntsoeResolution resolution;
+
+    @Param({"1", "2"})
+    private int days;
+
+    private PriceSeries priceSeries;
+
+    @Setup
+    public void setup() throws IOException {
+        priceSeries = new StaxTimeSeriesParser().parse(new ByteArrayInputStream(Fixtures.document(days)), resolution);
+    }
+
+    @Benchmark
+    public PriceRange cheapestWindow() {
+        return PriceAnalytics.cheapestWindow(priceSeries, Duration.ofHours(3));
+    }
+
+    @Benchmark
+    public List<PriceRange> cheapestSlots() {
+        return PriceAnalytics.cheapestSlots(priceSeries, priceSeries.size() / 4);
+    }
+
+    @Benchmark
+    public List<PriceRange> runsAtOrBelow() {
+        return PriceAnalytics.runsAtOrBelow(priceSeries, 1000);
+    }
+
+}
@@ -1,23 +1,65 @@
 package entsoe;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Limit the number of requests to a sensible limit.
+ * <p>
+ * Implemented as generic cell rate algorithm (a token bucket that stores the theoretical arrival time
+ * instead of a token count) without burst tolerance, combined with a minimum spacing between two permits.
+ * Permits are spread evenly, at least duration / maxRequestsPerDuration apart, so no window of the duration
+ * ever holds more than maxRequestsPerDuration permits. Each caller reserves the exact point in time of its permit with a single compare-and-set
+ * and waits afterwards without holding any lock.
+ * <p>
+ * A limiter created with {@link #shared(Path, int, Duration, Duration)} keeps its state in a memory mapped file,
+ * so all processes of a host that open the same file share the limit, e.g. of one security token.
  */
 public class ApiRateLimiter {
 
-    private final AtomicReference<Instant> lastUsed = new AtomicReference<>(Instant.now());
+    /**
+     * @param theoreticalArrivalTime the GCRA theoretical arrival time in nanos
+     * @param lastPermit the time of the latest reserved permit in nanos
+     */
+    record State(long theoreticalArrivalTime, long lastPermit) {
+    }
+
+    /**
+     * Where the state is kept and which clock it refers to.
+     */
+    interface StateSlot {
+
+        /**
+         * @return the current time in nanos on the clock of the state
+         */
+        long now();
 
-    private final AtomicLong counter = new AtomicLong(0);
+        State get();
+
+        boolean compareAndSet(State expected, State update);
+
+    }
+
+    private final StateSlot state;
+
+    private final AtomicInteger queueDepth = new AtomicInteger(); // callers waiting for their permit
 
     private final int maxRequestsPerDuration;
     private final Duration duration;
     private final Duration minWaitTimeBetweenRequests;
 
+    private final long emissionInterval; // nanos between two permits at the sustained rate
+    private final long minSpacing; // nanos between two permits
+
     /**
      * Create a new ApiRateLimiter
      * @param maxRequestsPerDuration The max number of request per duration. See {@link #duration}
@@ -25,43 +67,240 @@ public class ApiRateLimiter {
      * @param minWaitTimeBetweenRequests wait at least this duration between 2 requests
      */
     public ApiRateLimiter(int maxRequestsPerDuration, Duration duration, Duration minWaitTimeBetweenRequests) {
+        this(maxRequestsPerDuration, duration, minWaitTimeBetweenRequests, null);
+    }
+
+    private ApiRateLimiter(int maxRequestsPerDuration, Duration duration, Duration minWaitTimeBetweenRequests, StateSlot state) {
+        if (maxRequestsPerDuration <= 0) {
+            throw new IllegalArgumentException("maxRequestsPerDuration must be positive");
+        }
         this.maxRequestsPerDuration = maxRequestsPerDuration;
         this.duration = duration;
         this.minWaitTimeBetweenRequests = minWaitTimeBetweenRequests;
+        // rounded up, so maxRequestsPerDuration intervals are never shorter than the duration
+        this.emissionInterval = Math.floorDiv(duration.toNanos() + maxRequestsPerDuration - 1, maxRequestsPerDuration);
+        this.minSpacing = minWaitTimeBetweenRequests.toNanos();
+        this.state = state != null ? state : new LocalStateSlot(minSpacing);
     }
 
     /**
-     * Try to get a permit.
-     * @return false if there's no permit available.
+     * Create a limiter that shares its permits with all limiters of the same file, also in other processes.
+     * The file is created if it does not exist. All limiters of a file must use the same limits.
+     * @param file the file of the shared state, on a local file system
+     * @param maxRequestsPerDuration The max number of request per duration of all processes together
+     * @param duration See {@link #maxRequestsPerDuration}. Together with minWaitTimeBetweenRequests at most 60 minutes.
+     * @param minWaitTimeBetweenRequests wait at least this duration between 2 requests of all processes
+     * @return the new limiter
+     * @throws IOException if the file cannot be created or mapped
+     * @throws IllegalStateException if the file is not a limiter file or was created with other limits
+     */
+    public static ApiRateLimiter shared(Path file, int maxRequestsPerDuration, Duration duration, Duration minWaitTimeBetweenRequests) throws IOException {
+        return new ApiRateLimiter(maxRequestsPerDuration, duration, minWaitTimeBetweenRequests,
+                SharedStateSlot.open(file, maxRequestsPerDuration, duration, minWaitTimeBetweenRequests));
+    }
+
+    /**
+     * The limiter of a client without explicit limiter: 60 requests per minute with at least a second between two.
+     * If the Java property or ENV variable {@link EntsoeDefines#ENTSOE_RATE_LIMIT_FILE} is set, the limiter is
+     * shared through that file.
      */
-    synchronized boolean acquire() {
-        long newCounter = counter.incrementAndGet();
+    static ApiRateLimiter defaultLimiter() {
+        String file = System.getProperty(EntsoeDefines.ENTSOE_RATE_LIMIT_FILE);
+        if (file==null) {
+            file = System.getenv(EntsoeDefines.ENTSOE_RATE_LIMIT_FILE);
+        }
+        if (file==null || file.isBlank()) {
+            return new ApiRateLimiter(60, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        }
         try {
-            Thread.sleep(minWaitTimeBetweenRequests.toMillis());
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+            return shared(Path.of(file), 60, Duration.ofMinutes(1), Duration.ofSeconds(1));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open rate limit file " + file, e);
+        }
+    }
+
+    /**
+     * Reserve a permit if it is available within maxWait.
+     * @param maxWait the max nanos the caller is willing to wait
+     * @return the nanos to wait until the reserved permit is valid or -1 if no permit was reserved
+     */
+    long reserve(long maxWait) {
+        while (true) {
+            long now = state.now();
+            State current = state.get();
+            long permitTime = Math.max(now, Math.max(current.theoreticalArrivalTime(), current.lastPermit() + minSpacing));
+            long wait = permitTime - now;
+            if (wait > maxWait) {
+                return -1;
+            }
+            long theoreticalArrivalTime = Math.max(current.theoreticalArrivalTime(), permitTime) + emissionInterval;
+            if (state.compareAndSet(current, new State(theoreticalArrivalTime, permitTime))) {
+                return wait;
+            }
         }
-        if (lastUsed.get().isBefore(Instant.now().minus(duration)) && newCounter>maxRequestsPerDuration) {
-            counter.set(0);
-            lastUsed.set(Instant.now());
-            System.out.println("reset");
+    }
+
+    /**
+     * Get a permit and wait until it is valid.
+     */
+    public void acquire() {
+        await(reserve(Long.MAX_VALUE));
+    }
+
+    /**
+     * Get a permit only if it is available immediately.
+     * @return false if there's no permit available.
+     */
+    public boolean tryAcquire() {
+        return reserve(0) == 0;
+    }
+
+    /**
+     * Get a permit if it becomes available within the timeout. Waits until the permit is valid.
+     * @param timeout the max duration to wait
+     * @return false if there's no permit available within the timeout. Nothing is reserved in this case.
+     */
+    public boolean tryAcquire(Duration timeout) {
+        long wait = reserve(timeout.toNanos());
+        if (wait < 0) {
             return false;
-        } else {
-            return newCounter <= maxRequestsPerDuration;
+        }
+        await(wait);
+        return true;
+    }
+
+    private void await(long wait) {
+        if (wait <= 0) {
+            return;
+        }
+        queueDepth.incrementAndGet();
+        try {
+            long deadline = System.nanoTime() + wait;
+            while ((wait = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, wait);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while waiting for a permit");
+                }
+            }
+        } finally {
+            queueDepth.decrementAndGet();
         }
     }
 
     /**
-     * Try to get a permit and wait until there is free permit.
+     * Get a permit without blocking the calling thread.
+     * @return a future that completes when the request may be sent
      */
-    public synchronized void acquireWait() {
-        while (!acquire()) {
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+    public CompletableFuture<Void> acquireAsync() {
+        return acquireAsync(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Get a permit without blocking the calling thread.
+     * @param executor The executor that completes the future
+     * @return a future that completes when the request may be sent
+     */
+    public CompletableFuture<Void> acquireAsync(Executor executor) {
+        long wait = reserve(Long.MAX_VALUE);
+        if (wait == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        queueDepth.incrementAndGet();
+        return CompletableFuture.runAsync(queueDepth::decrementAndGet,
+                CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS, executor));
+    }
+
+    /**
+     * Grant no permit before the duration has passed, e.g. because the API answered with a Retry-After header.
+     * Permits that are already reserved are not affected.
+     * @param duration the time from now on without permits
+     */
+    public void pause(Duration duration) {
+        long until = state.now() + duration.toNanos();
+        while (true) {
+            State current = state.get();
+            if (current.lastPermit() + minSpacing >= until) {
+                return;
+            }
+            State paused = new State(Math.max(current.theoreticalArrivalTime(), until), until - minSpacing);
+            if (state.compareAndSet(current, paused)) {
+                return;
             }
         }
     }
 
+    /**
+     * @return the number of callers that reserved a permit and wait until it is valid
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Try to get a permit and wait until there is free permit.
+     * @deprecated use {@link #acquire()}
+     */
+    @Deprecated
+    public void acquireWait() {
+        acquire();
+    }
+
+    /**
+     * @return true if the permits are shared through a file
+     */
+    public boolean isShared() {
+        return state instanceof SharedStateSlot;
+    }
+
+    /**
+     * @return The max number of request per duration
+     */
+    public int getMaxRequestsPerDuration() {
+        return maxRequestsPerDuration;
+    }
+
+    /**
+     * @return The duration the number of requests is limited for
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return The minimum time between 2 requests
+     */
+    public Duration getMinWaitTimeBetweenRequests() {
+        return minWaitTimeBetweenRequests;
+    }
+
+    /**
+     * The state of a limiter in this process, on the clock of {@link System#nanoTime()}.
+     */
+    private static class LocalStateSlot implements StateSlot {
+
+        private final AtomicReference<State> state;
+
+        LocalStateSlot(long minSpacing) {
+            long now = System.nanoTime();
+            this.state = new AtomicReference<>(new State(now, now - minSpacing));
+        }
+
+        @Override
+        public long now() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public State get() {
+            return state.get();
+        }
+
+        @Override
+        public boolean compareAndSet(State expected, State update) {
+            return state.compareAndSet(expected, update);
+        }
+
+    }
+
 }
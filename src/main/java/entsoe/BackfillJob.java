@@ -0,0 +1,312 @@
+package entsoe;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads the prices of several bidding zones and a long range of days.
+ * <p>
+ * The range is split into one window per bidding zone and year, the longest period the API accepts
+ * (see {@link EntsoeRequest#split()}). Windows are fetched concurrently by a bounded number of threads, so the
+ * requests share the {@link ApiRateLimiter} of the client and at most that many windows are held in memory.
+ * Each window is passed to the {@link Sink} as soon as it is complete.
+ * <p>
+ * If a checkpoint file is set, each window is appended to it after the sink accepted it. A job that runs again with
+ * the same file skips these windows, so an interrupted backfill resumes where it stopped.
+ * A failed window does not stop the other windows; it is reported in the {@link Result} and fetched by the next run.
+ */
+public class BackfillJob {
+
+    private static final Logger LOGGER = Logger.getLogger(BackfillJob.class.getName());
+
+    /**
+     * The default number of windows fetched at the same time.
+     */
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /**
+     * Receives the prices of each window.
+     */
+    @FunctionalInterface
+    public interface Sink {
+
+        /**
+         * Called once for each completed window. Calls are not concurrent, but may come from different threads.
+         * @param window the request of the window
+         * @param prices the prices of the window. The series is empty if the API has no data.
+         * @throws IOException if the prices could not be stored. The window is not checkpointed and counts as failed.
+         */
+        void accept(EntsoeRequest window, PriceSeries prices) throws IOException;
+
+    }
+
+    /**
+     * The outcome of a run.
+     * @param windows the number of windows of the job
+     * @param skipped the windows that were already in the checkpoint file
+     * @param completed the windows that were fetched and accepted by the sink in this run
+     * @param failed the windows that failed and the cause, in chronological order
+     */
+    public record Result(int windows, int skipped, int completed, Map<EntsoeRequest, Throwable> failed) {
+
+        /**
+         * @return true if no window failed
+         */
+        public boolean isComplete() {
+            return failed.isEmpty();
+        }
+
+    }
+
+    private final BiFunction<EntsoeRequest, EntsoeResolution, PriceSeries> fetcher;
+    private final List<BiddingZone> biddingZones;
+    private final EntsoeDocumentType documentType;
+    private final EntsoePeriod period;
+    private final EntsoeResolution resolution;
+    private final int parallelism;
+    private final Path checkpointFile;
+
+    private BackfillJob(Builder builder) {
+        if (builder.biddingZones.isEmpty()) {
+            throw new IllegalStateException("No bidding zone set");
+        }
+        if (builder.period == null) {
+            throw new IllegalStateException("No period set");
+        }
+        this.fetcher = builder.fetcher;
+        this.biddingZones = List.copyOf(builder.biddingZones);
+        this.documentType = builder.documentType;
+        this.period = builder.period;
+        this.resolution = builder.resolution;
+        this.parallelism = builder.parallelism;
+        this.checkpointFile = builder.checkpointFile;
+    }
+
+    /**
+     * @param entsoeClient the client used for the requests
+     * @return a new builder
+     */
+    public static Builder builder(EntsoeClient entsoeClient) {
+        return new Builder(entsoeClient::getPriceSeries);
+    }
+
+    static Builder builder(BiFunction<EntsoeRequest, EntsoeResolution, PriceSeries> fetcher) {
+        return new Builder(fetcher);
+    }
+
+    /**
+     * @return all windows of the job, ordered by bidding zone and time
+     */
+    public List<EntsoeRequest> getWindows() {
+        List<EntsoeRequest> res = new ArrayList<>();
+        for (BiddingZone biddingZone : biddingZones) {
+            res.addAll(new EntsoeRequest(biddingZone, documentType, period).split());
+        }
+        return res;
+    }
+
+    /**
+     * Fetch all windows that are not in the checkpoint file and pass them to the sink.
+     * Blocks until all windows completed or failed.
+     * @param sink receives the prices of each window
+     * @return the outcome
+     * @throws IOException if the checkpoint file could not be read or written
+     */
+    public Result run(Sink sink) throws IOException {
+        List<EntsoeRequest> windows = getWindows();
+        Set<String> done = readCheckpoint();
+        List<EntsoeRequest> pending = new ArrayList<>();
+        for (EntsoeRequest window : windows) {
+            if (!done.contains(getKey(window))) {
+                pending.add(window);
+            }
+        }
+        LOGGER.info("Backfill of " + windows.size() + " windows, " + (windows.size() - pending.size()) + " already done");
+
+        Map<EntsoeRequest, Throwable> failed = new LinkedHashMap<>();
+        AtomicInteger completed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, pending.size())), runnable -> {
+            Thread thread = new Thread(runnable, "entsoe-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (BufferedWriter checkpoint = checkpointFile != null
+                ? Files.newBufferedWriter(checkpointFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                : null) {
+            Object lock = new Object();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (EntsoeRequest window : pending) {
+                futures.add(CompletableFuture
+                        .supplyAsync(() -> fetcher.apply(window, resolution), executor)
+                        .thenAccept(prices -> {
+                            synchronized (lock) {
+                                try {
+                                    sink.accept(window, prices);
+                                    if (checkpoint != null) {
+                                        checkpoint.write(getKey(window));
+                                        checkpoint.newLine();
+                                        checkpoint.flush();
+                                    }
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            }
+                            completed.incrementAndGet();
+                            LOGGER.fine(() -> "Backfill window " + getKey(window) + " done");
+                        })
+                        .exceptionally(e -> {
+                            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                            LOGGER.log(Level.WARNING, "Backfill window " + getKey(window) + " failed", cause);
+                            synchronized (failed) {
+                                failed.put(window, cause);
+                            }
+                            return null;
+                        }));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+        Map<EntsoeRequest, Throwable> failedInOrder = new LinkedHashMap<>();
+        for (EntsoeRequest window : pending) {
+            if (failed.containsKey(window)) {
+                failedInOrder.put(window, failed.get(window));
+            }
+        }
+        return new Result(windows.size(), windows.size() - pending.size(), completed.get(), failedInOrder);
+    }
+
+    private Set<String> readCheckpoint() throws IOException {
+        Set<String> res = new HashSet<>();
+        if (checkpointFile != null && Files.exists(checkpointFile)) {
+            for (String line : Files.readAllLines(checkpointFile, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    res.add(line.trim());
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * The line of a window in the checkpoint file, e.g. {@code DE_LU A44 PT60M 202301010000 202312312300}.
+     */
+    private String getKey(EntsoeRequest window) {
+        return window.biddingZone().name() + ' ' + window.documentType().name() + ' ' + resolution.name() + ' '
+                + window.period().periodStart().getEntsoeDateTime() + ' ' + window.period().periodEnd().getEntsoeDateTime();
+    }
+
+    /**
+     * Builder for {@link BackfillJob}.
+     */
+    public static class Builder {
+
+        private final BiFunction<EntsoeRequest, EntsoeResolution, PriceSeries> fetcher;
+        private final List<BiddingZone> biddingZones = new ArrayList<>();
+        private EntsoeDocumentType documentType = EntsoeDocumentType.A44;
+        private EntsoePeriod period;
+        private EntsoeResolution resolution = EntsoeResolution.PT60M;
+        private int parallelism = DEFAULT_PARALLELISM;
+        private Path checkpointFile;
+
+        private Builder(BiFunction<EntsoeRequest, EntsoeResolution, PriceSeries> fetcher) {
+            this.fetcher = fetcher;
+        }
+
+        /**
+         * @param biddingZones the bidding zones to load
+         * @return this builder
+         */
+        public Builder biddingZones(Collection<BiddingZone> biddingZones) {
+            this.biddingZones.addAll(biddingZones);
+            return this;
+        }
+
+        /**
+         * @param biddingZone a bidding zone to load
+         * @return this builder
+         */
+        public Builder biddingZone(BiddingZone biddingZone) {
+            this.biddingZones.add(biddingZone);
+            return this;
+        }
+
+        /**
+         * @param documentType the document type. Default is {@link EntsoeDocumentType#A44}.
+         * @return this builder
+         */
+        public Builder documentType(EntsoeDocumentType documentType) {
+            this.documentType = documentType;
+            return this;
+        }
+
+        /**
+         * @param from the first day
+         * @param to the last day (inclusive)
+         * @return this builder
+         */
+        public Builder period(EntsoeDate from, EntsoeDate to) {
+            this.period = new EntsoePeriod(from, to);
+            return this;
+        }
+
+        /**
+         * @param resolution the resolution of the prices. Default is {@link EntsoeResolution#PT60M}.
+         * @return this builder
+         */
+        public Builder resolution(EntsoeResolution resolution) {
+            this.resolution = resolution;
+            return this;
+        }
+
+        /**
+         * @param parallelism the max number of windows fetched at the same time. Default is {@link #DEFAULT_PARALLELISM}.
+         * @return this builder
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("parallelism must be positive");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @param checkpointFile the file that records the completed windows. It is created if it does not exist.
+         * @return this builder
+         */
+        public Builder checkpointFile(Path checkpointFile) {
+            this.checkpointFile = checkpointFile;
+            return this;
+        }
+
+        /**
+         * @return the new job
+         */
+        public BackfillJob build() {
+            return new BackfillJob(this);
+        }
+
+    }
+
+}
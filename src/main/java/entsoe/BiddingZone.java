@@ -0,0 +1,185 @@
+package entsoe;
+
+import java.time.ZoneId;
+
+/**
+ * Bidding zones of the day ahead market and their EIC codes.
+ * The EIC code is used as in_Domain and out_Domain of a request.
+ */
+public enum BiddingZone {
+
+    /**
+     * Austria
+     */
+    AT("10YAT-APG------L", "Europe/Vienna"),
+    /**
+     * Belgium
+     */
+    BE("10YBE----------2", "Europe/Brussels"),
+    /**
+     * Bulgaria
+     */
+    BG("10YCA-BULGARIA-R", "Europe/Sofia"),
+    /**
+     * Switzerland
+     */
+    CH("10YCH-SWISSGRIDZ", "Europe/Zurich"),
+    /**
+     * Czech Republic
+     */
+    CZ("10YCZ-CEPS-----N", "Europe/Prague"),
+    /**
+     * Germany, Austria and Luxembourg - until 2018-09-30
+     */
+    DE_AT_LU("10Y1001A1001A63L", "Europe/Berlin"),
+    /**
+     * Germany and Luxembourg - since 2018-10-01
+     */
+    DE_LU("10Y1001A1001A82H", "Europe/Berlin"),
+    /**
+     * Denmark West
+     */
+    DK_1("10YDK-1--------W", "Europe/Copenhagen"),
+    /**
+     * Denmark East
+     */
+    DK_2("10YDK-2--------M", "Europe/Copenhagen"),
+    /**
+     * Estonia
+     */
+    EE("10Y1001A1001A39I", "Europe/Tallinn"),
+    /**
+     * Spain
+     */
+    ES("10YES-REE------0", "Europe/Madrid"),
+    /**
+     * Finland
+     */
+    FI("10YFI-1--------U", "Europe/Helsinki"),
+    /**
+     * France
+     */
+    FR("10YFR-RTE------C", "Europe/Paris"),
+    /**
+     * Greece
+     */
+    GR("10YGR-HTSO-----Y", "Europe/Athens"),
+    /**
+     * Croatia
+     */
+    HR("10YHR-HEP------M", "Europe/Zagreb"),
+    /**
+     * Hungary
+     */
+    HU("10YHU-MAVIR----U", "Europe/Budapest"),
+    /**
+     * Italy North
+     */
+    IT_NORD("10Y1001A1001A73I", "Europe/Rome"),
+    /**
+     * Lithuania
+     */
+    LT("10YLT-1001A0008Q", "Europe/Vilnius"),
+    /**
+     * Latvia
+     */
+    LV("10YLV-1001A00074", "Europe/Riga"),
+    /**
+     * Netherlands
+     */
+    NL("10YNL----------L", "Europe/Amsterdam"),
+    /**
+     * Norway 1
+     */
+    NO_1("10YNO-1--------2", "Europe/Oslo"),
+    /**
+     * Norway 2
+     */
+    NO_2("10YNO-2--------T", "Europe/Oslo"),
+    /**
+     * Norway 3
+     */
+    NO_3("10YNO-3--------J", "Europe/Oslo"),
+    /**
+     * Norway 4
+     */
+    NO_4("10YNO-4--------9", "Europe/Oslo"),
+    /**
+     * Norway 5
+     */
+    NO_5("10Y1001A1001A48H", "Europe/Oslo"),
+    /**
+     * Poland
+     */
+    PL("10YPL-AREA-----S", "Europe/Warsaw"),
+    /**
+     * Portugal
+     */
+    PT("10YPT-REN------W", "Europe/Lisbon"),
+    /**
+     * Romania
+     */
+    RO("10YRO-TEL------P", "Europe/Bucharest"),
+    /**
+     * Sweden 1
+     */
+    SE_1("10Y1001A1001A44P", "Europe/Stockholm"),
+    /**
+     * Sweden 2
+     */
+    SE_2("10Y1001A1001A45N", "Europe/Stockholm"),
+    /**
+     * Sweden 3
+     */
+    SE_3("10Y1001A1001A46L", "Europe/Stockholm"),
+    /**
+     * Sweden 4
+     */
+    SE_4("10Y1001A1001A47J", "Europe/Stockholm"),
+    /**
+     * Slovenia
+     */
+    SI("10YSI-ELES-----O", "Europe/Ljubljana"),
+    /**
+     * Slovakia
+     */
+    SK("10YSK-SEPS-----K", "Europe/Bratislava");
+
+    private final String eic;
+    private final ZoneId zoneId;
+
+    BiddingZone(String eic, String zoneId) {
+        this.eic = eic;
+        this.zoneId = ZoneId.of(zoneId);
+    }
+
+    /**
+     * @return the EIC code of the bidding zone
+     */
+    public String getEic() {
+        return eic;
+    }
+
+    /**
+     * @return the local time zone of the bidding zone
+     */
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    /**
+     * Find the bidding zone of an EIC code.
+     * @param eic the EIC code
+     * @return the bidding zone
+     * @throws IllegalArgumentException if the EIC code is unknown
+     */
+    public static BiddingZone fromEic(String eic) {
+        for (BiddingZone biddingZone : values()) {
+            if (biddingZone.eic.equals(eic)) {
+                return biddingZone;
+            }
+        }
+        throw new IllegalArgumentException("Unknown EIC code: " + eic);
+    }
+
+}
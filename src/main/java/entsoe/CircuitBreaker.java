@@ -0,0 +1,110 @@
+package entsoe;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Stops sending requests while the API is unavailable.
+ * <p>
+ * After the configured number of consecutive failed attempts the breaker opens, and requests fail immediately with
+ * {@link EntsoeCircuitOpenException}. After the open duration a single request is let through. If it succeeds the
+ * breaker closes, else it opens again. Failed attempts are requests without response and responses that the
+ * {@link RetryPolicy} retries. Share one instance between clients that use the same API.
+ */
+public class CircuitBreaker {
+
+    /**
+     * The state of the breaker.
+     */
+    public enum State {
+        /** Requests are sent. */
+        CLOSED,
+        /** Requests fail immediately. */
+        OPEN,
+        /** A single request is sent to test the API. */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    /**
+     * Create a new circuit breaker.
+     * @param failureThreshold the number of consecutive failures that open the breaker
+     * @param openDuration how long the breaker stays open
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, Clock.systemUTC());
+    }
+
+    /**
+     * Create a new circuit breaker.
+     * @param failureThreshold the number of consecutive failures that open the breaker
+     * @param openDuration how long the breaker stays open
+     * @param clock the clock used for the open duration
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Ask for permission to send a request. The outcome must be reported with {@link #onSuccess()} or {@link #onFailure()}.
+     * @throws EntsoeCircuitOpenException if the breaker is open
+     */
+    public synchronized void acquire() {
+        if (state == State.OPEN) {
+            long remaining = openedAt + openDuration.toMillis() - clock.millis();
+            if (remaining > 0) {
+                throw new EntsoeCircuitOpenException(Duration.ofMillis(remaining));
+            }
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probing) {
+                throw new EntsoeCircuitOpenException(Duration.ZERO);
+            }
+            probing = true;
+        }
+    }
+
+    /**
+     * Report a successful request.
+     */
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        probing = false;
+    }
+
+    /**
+     * Report a failed request.
+     */
+    public synchronized void onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.millis();
+            probing = false;
+        }
+    }
+
+    /**
+     * @return the current state. An open breaker whose open duration has passed is reported as open until the next request.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+}
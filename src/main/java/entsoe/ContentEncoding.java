@@ -0,0 +1,131 @@
+package entsoe;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Body handlers that decode compressed responses. The JDK HttpClient does not decompress bodies itself.
+ */
+final class ContentEncoding {
+
+    /**
+     * The value of the Accept-Encoding header of all requests.
+     */
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private ContentEncoding() {
+    }
+
+    /**
+     * @return a body handler that streams the decoded body. Nothing is buffered beyond the buffers of the HttpClient.
+     */
+    static HttpResponse.BodyHandler<InputStream> ofInputStream() {
+        return responseInfo -> {
+            String encoding = getEncoding(responseInfo);
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(), in -> decode(encoding, in));
+        };
+    }
+
+    /**
+     * @return a body handler that decodes the body into a String using the charset of the Content-Type header
+     */
+    static HttpResponse.BodyHandler<String> ofString() {
+        return responseInfo -> {
+            String encoding = getEncoding(responseInfo);
+            if (encoding.equals("identity")) {
+                return HttpResponse.BodyHandlers.ofString().apply(responseInfo);
+            }
+            Charset charset = getCharset(responseInfo);
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+                try (InputStream in = decode(encoding, new ByteArrayInputStream(bytes))) {
+                    return new String(in.readAllBytes(), charset);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+    }
+
+    private static String getEncoding(HttpResponse.ResponseInfo responseInfo) {
+        return responseInfo.headers().firstValue("Content-Encoding").orElse("identity").trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Charset getCharset(HttpResponse.ResponseInfo responseInfo) {
+        String contentType = responseInfo.headers().firstValue("Content-Type").orElse("");
+        for (String parameter : contentType.split(";")) {
+            String[] nameValue = parameter.trim().split("=", 2);
+            if (nameValue.length == 2 && nameValue[0].trim().equalsIgnoreCase("charset")) {
+                try {
+                    return Charset.forName(nameValue[1].trim().replace("\"", ""));
+                } catch (IllegalArgumentException e) {
+                    break;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static InputStream decode(String encoding, InputStream in) {
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new LazyGZIPInputStream(in);
+            case "deflate" -> new InflaterInputStream(in);
+            case "identity", "" -> in;
+            default -> throw new IllegalStateException("Unsupported Content-Encoding: " + encoding);
+        };
+    }
+
+    /**
+     * Reads the gzip header on first use. The body handler must not block, but the
+     * {@link GZIPInputStream} constructor reads the header.
+     */
+    private static final class LazyGZIPInputStream extends InputStream {
+
+        private final InputStream in;
+        private GZIPInputStream gzip;
+
+        private LazyGZIPInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        private InputStream gzip() throws IOException {
+            if (gzip == null) {
+                gzip = new GZIPInputStream(in, 8192);
+            }
+            return gzip;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return gzip().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return gzip().read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return gzip == null ? 0 : gzip.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (gzip != null) {
+                gzip.close();
+            } else {
+                in.close();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,53 @@
+package entsoe;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.function.LongConsumer;
+
+/**
+ * Passes the body of a response to another subscriber and reports the number of bytes when the body is complete.
+ */
+class CountingBodySubscriber<T> implements HttpResponse.BodySubscriber<T> {
+
+    private final HttpResponse.BodySubscriber<T> delegate;
+    private final LongConsumer onComplete;
+    private long bytes;
+
+    CountingBodySubscriber(HttpResponse.BodySubscriber<T> delegate, LongConsumer onComplete) {
+        this.delegate = delegate;
+        this.onComplete = onComplete;
+    }
+
+    @Override
+    public CompletionStage<T> getBody() {
+        return delegate.getBody();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        delegate.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> item) {
+        for (ByteBuffer buffer : item) {
+            bytes += buffer.remaining();
+        }
+        delegate.onNext(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        delegate.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        onComplete.accept(bytes);
+        delegate.onComplete();
+    }
+
+}
@@ -0,0 +1,119 @@
+package entsoe;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.logging.Logger;
+
+/**
+ * DOM + XPath based parser. Builds the complete document in memory.
+ * Kept as fallback for {@link StaxTimeSeriesParser}.
+ */
+public class DomTimeSeriesParser implements TimeSeriesParser {
+
+    private static final Logger LOGGER = Logger.getLogger(DomTimeSeriesParser.class.getName());
+
+    private static final DocumentBuilderFactory BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+
+    @Override
+    public void parseAll(InputStream inputStream, ResolutionPricePointConsumer consumer) throws IOException {
+        try {
+            DocumentBuilder builder;
+            synchronized (BUILDER_FACTORY) {
+                builder = BUILDER_FACTORY.newDocumentBuilder();
+            }
+            Document xmlDocument = builder.parse(inputStream);
+            XPath xPath = XPathFactory.newInstance().newXPath();
+            if (xmlDocument.getDocumentElement().getNodeName().equals(ACKNOWLEDGEMENT_DOCUMENT)) {
+                String code = xPath.evaluate("/" + ACKNOWLEDGEMENT_DOCUMENT + "/Reason[1]/code", xmlDocument).trim();
+                String text = xPath.evaluate("/" + ACKNOWLEDGEMENT_DOCUMENT + "/Reason[1]/text", xmlDocument).trim();
+                throw EntsoeAcknowledgementException.of(code, text);
+            }
+            String expression = "/Publication_MarketDocument/TimeSeries/Period/resolution";
+            NodeList nodeList = (NodeList) xPath.compile(expression).evaluate(xmlDocument, XPathConstants.NODESET);
+            int length = nodeList.getLength();
+            for (int n = 0; n < length; n++) {
+                Node resoultionNode = nodeList.item(n);
+                EntsoeResolution entsoeResolution = EntsoeResolution.fromName(resoultionNode.getTextContent().trim());
+                if (entsoeResolution == null) {
+                    continue;
+                }
+                Node node = resoultionNode.getParentNode(); // Period
+                boolean curveA03 = xPath.evaluate("curveType", node.getParentNode()).trim().equals(CURVE_TYPE_A03);
+                int minutes = entsoeResolution.getMinutes();
+                String start = null;
+                String end = null;
+                int lastPosition = 0;
+                long lastPrice = 0;
+                NodeList childNodes = node.getChildNodes();
+                for (int i = 0; i < childNodes.getLength(); i++) {
+                    Node item = childNodes.item(i);
+                    String nodeName = item.getNodeName();
+                    if (nodeName.equals("timeInterval")) {
+                        NodeList childNodes1 = item.getChildNodes();
+                        for (int j = 0; j < childNodes1.getLength(); j++) {
+                            Node item1 = childNodes1.item(j);
+                            if (item1.getNodeName().equals("start")) {
+                                start = item1.getTextContent();
+                                LOGGER.fine("Found start of time interval: " + start);
+                            } else if (item1.getNodeName().equals("end")) {
+                                end = item1.getTextContent();
+                            }
+                        }
+                    } else if (nodeName.equals("Point") && start != null) {
+                        NodeList childNodes1 = item.getChildNodes();
+                        Integer position = null;
+                        Long price = null;
+                        for (int j = 0; j < childNodes1.getLength(); j++) {
+                            Node item1 = childNodes1.item(j);
+                            if (item1.getNodeName().equals("position")) {
+                                String textContent = item1.getTextContent();
+                                position = Integer.parseInt(textContent);
+                            } else if (item1.getNodeName().equals("price.amount")) {
+                                String textContent = item1.getTextContent();
+                                price = TimeSeriesParser.toFixedPoint(textContent);
+                            }
+                        }
+                        if (position != null && price!=null) {
+                            ZonedDateTime zonedDateTime = ZonedDateTime.parse(start);
+                            EntsoeDate entsoeStartDate = new EntsoeDate(zonedDateTime);
+                            if (curveA03 && lastPosition > 0) {
+                                for (int omitted = lastPosition + 1; omitted < position; omitted++) {
+                                    consumer.accept(entsoeResolution, entsoeStartDate.epochMinute() + (omitted - 1L) * minutes, lastPrice);
+                                }
+                            }
+                            lastPosition = position;
+                            lastPrice = price;
+                            EntsoeDate priceDate = EntsoeDate.fromENTSOEDate(entsoeStartDate, position - 1, entsoeResolution);
+                            LOGGER.finer("price mapping " + priceDate + "=" + price);
+                            consumer.accept(entsoeResolution, priceDate.epochMinute(), price);
+                        }
+                    }
+                }
+                if (curveA03 && lastPosition > 0 && end != null) {
+                    // the last point is valid until the end of the period
+                    long periodStart = ZonedDateTime.parse(start).toEpochSecond() / 60;
+                    int positions = (int) ((ZonedDateTime.parse(end).toEpochSecond() / 60 - periodStart) / minutes);
+                    for (int p = lastPosition + 1; p <= positions; p++) {
+                        consumer.accept(entsoeResolution, periodStart + (p - 1L) * minutes, lastPrice);
+                    }
+                }
+            }
+        } catch (ParserConfigurationException | SAXException | XPathExpressionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package entsoe;
+
+/**
+ * The API answered with an Acknowledgement_MarketDocument instead of the requested data,
+ * e.g. because of invalid parameters. See {@link EntsoeNoDataException} for requests without matching data.
+ */
+public class EntsoeAcknowledgementException extends EntsoeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String NO_DATA = "No matching data found";
+
+    private final String reasonCode;
+
+    private final String reasonText;
+
+    /**
+     * @param reasonCode the Reason/code of the document
+     * @param reasonText the Reason/text of the document
+     */
+    public EntsoeAcknowledgementException(String reasonCode, String reasonText) {
+        super("ENTSO-E acknowledgement " + reasonCode + ": " + reasonText);
+        this.reasonCode = reasonCode;
+        this.reasonText = reasonText;
+    }
+
+    /**
+     * Creates the exception for the reason of an acknowledgement document.
+     * @param reasonCode the Reason/code of the document
+     * @param reasonText the Reason/text of the document
+     * @return an {@link EntsoeNoDataException} if the API found no data, else an {@link EntsoeAcknowledgementException}
+     */
+    public static EntsoeAcknowledgementException of(String reasonCode, String reasonText) {
+        if (reasonText != null && reasonText.trim().startsWith(NO_DATA)) {
+            return new EntsoeNoDataException(reasonCode, reasonText);
+        }
+        return new EntsoeAcknowledgementException(reasonCode, reasonText);
+    }
+
+    /**
+     * @return the Reason/code of the document, usually 999
+     */
+    public String getReasonCode() {
+        return reasonCode;
+    }
+
+    /**
+     * @return the Reason/text of the document
+     */
+    public String getReasonText() {
+        return reasonText;
+    }
+
+}
@@ -0,0 +1,29 @@
+package entsoe;
+
+import java.time.Duration;
+
+/**
+ * The request was not sent because the {@link CircuitBreaker} is open.
+ */
+public class EntsoeCircuitOpenException extends EntsoeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration remaining;
+
+    /**
+     * @param remaining the time until the circuit breaker lets a request pass again
+     */
+    public EntsoeCircuitOpenException(Duration remaining) {
+        super("ENTSO-E API unavailable, circuit breaker open for another " + remaining);
+        this.remaining = remaining;
+    }
+
+    /**
+     * @return the time until the circuit breaker lets a request pass again
+     */
+    public Duration getRemaining() {
+        return remaining;
+    }
+
+}
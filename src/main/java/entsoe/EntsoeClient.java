@@ -1,63 +1,88 @@
 package entsoe;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Access the ENTSO-E Transparency Platform.
  * To be able to use the library, an API TOKEN is required. See README.md
- * Please note that some constants make only sense for users in Germany.
+ * By default the day ahead prices of the bidding zone DE_LU (Germany) are requested.
+ * Other bidding zones can be configured with the {@link Builder} or passed per request.
+ * If the API does not publish the requested resolution, the published prices are converted, see {@link PriceSeries#resample}.
  */
-public class EntsoeClient implements EntsoeDefines {
+public class EntsoeClient implements EntsoeDefines, AutoCloseable {
 
     private static final Logger LOGGER = Logger.getLogger(EntsoeClient.class.getName());
 
-    private static final String apiUrl = "https://web-api.tp.entsoe.eu/api"; // The URL of the ENTSOE API
-    private static final String documentType = "A44"; // The day ahead prices document
-    private static final String in_Domain = "10Y1001A1001A82H"; // DE_LU (Germany)
-    private static final String out_Domain = in_Domain; // must be the same as in_Domain
+    /**
+     * The URL of the ENTSO-E API.
+     */
+    public static final String DEFAULT_API_URL = "https://web-api.tp.entsoe.eu/api";
+
+    private final String apiUrl; // the ENTSO-E API or a PriceServer
+
+    private final ApiRateLimiter apiRateLimiter;
+
+    private final String entsoeSecurityToken; // required to get access, null for a sidecar
+
+    private final TimeSeriesParser timeSeriesParser;
+
+    private final BiddingZone biddingZone; // used by all methods without explicit bidding zone
+
+    private final EntsoeDocumentType documentType; // used by all methods without explicit request
+
+    private final TimeSeriesCache timeSeriesCache; // optional, null if disabled
 
-    private final ApiRateLimiter apiRateLimiter = new ApiRateLimiter(60, Duration.ofMinutes(1), Duration.ofSeconds(1)); // max 60 requests per minute
+    private final PriceStore priceStore; // optional, null if disabled
 
-    private final String entsoeSecurityToken; // required to get access
+    private final EntsoeTransport transport; // shared by all requests of this client
+
+    private final ExecutorService ownedExecutor; // created by this client, shut down in close()
+
+    private final Duration requestTimeout;
+
+    private final Executor asyncExecutor; // runs parsing and rate limiting of the asynchronous API
+
+    private final EntsoeMetrics metrics;
+
+    private final RetryPolicy retryPolicy;
+
+    private final PriceSeries.Aggregation aggregation;
+
+    private final CircuitBreaker circuitBreaker; // optional, null if disabled
 
     /**
      * Explicit constructor that takes the ENTSOE_SECURITY_TOKEN as parameter.
      * @param entsoeSecurityToken The ENTSOE_SECURITY_TOKEN as parameter - must not be null
      */
     public EntsoeClient(String entsoeSecurityToken) {
-        if (entsoeSecurityToken==null) {
-            throw new IllegalArgumentException("entsoeSecurityToken must not be null");
-        }
-        this.entsoeSecurityToken = entsoeSecurityToken;
+        this(builder().securityToken(requireToken(entsoeSecurityToken)));
     }
 
     /**
@@ -65,14 +90,91 @@ public class EntsoeClient implements EntsoeDefines {
      * A Java Property has precedence over an ENV variable.
      */
     public EntsoeClient() {
-        String property = System.getProperty(ENTSOE_SECURITY_TOKEN);
-        if (property==null) {
-            property = System.getenv(ENTSOE_SECURITY_TOKEN);
+        this(builder());
+    }
+
+    private EntsoeClient(Builder builder) {
+        String token = builder.entsoeSecurityToken;
+        if (token==null) {
+            token = System.getProperty(ENTSOE_SECURITY_TOKEN);
         }
-        if (property==null) {
+        if (token==null) {
+            token = System.getenv(ENTSOE_SECURITY_TOKEN);
+        }
+        if (token==null && builder.sidecar == null) { // a sidecar does not need the token
             throw new IllegalStateException("ENTSOE_SECURITY_TOKEN must not be null");
         }
-        this.entsoeSecurityToken = property;
+        this.entsoeSecurityToken = builder.sidecar != null ? null : token;
+        this.apiUrl = builder.sidecar != null ? builder.sidecar.resolve("/api").toString() : DEFAULT_API_URL;
+        if (builder.apiRateLimiter != null) {
+            this.apiRateLimiter = builder.apiRateLimiter;
+        } else if (builder.sidecar != null) {
+            // the sidecar limits the upstream requests, requests to it are not limited and never take shared permits
+            this.apiRateLimiter = new ApiRateLimiter(Integer.MAX_VALUE, Duration.ofSeconds(1), Duration.ZERO);
+        } else {
+            this.apiRateLimiter = ApiRateLimiter.defaultLimiter(); // max 60 requests per minute
+        }
+        this.timeSeriesParser = builder.timeSeriesParser != null ? builder.timeSeriesParser : TimeSeriesParser.defaultParser();
+        this.requestTimeout = builder.requestTimeout;
+        this.biddingZone = builder.biddingZone;
+        this.documentType = builder.documentType;
+        this.timeSeriesCache = builder.timeSeriesCache;
+        this.priceStore = builder.priceStore;
+        this.metrics = builder.metrics != null ? builder.metrics : EntsoeMetrics.NOOP;
+        this.retryPolicy = builder.retryPolicy != null ? builder.retryPolicy : RetryPolicy.DEFAULT;
+        this.circuitBreaker = builder.circuitBreaker;
+        this.aggregation = builder.aggregation != null ? builder.aggregation : PriceSeries.Aggregation.MEAN;
+        if (builder.httpClient != null) {
+            this.transport = builder.transport != null ? builder.transport : new HttpClientTransport(builder.httpClient);
+            this.ownedExecutor = null;
+            this.asyncExecutor = builder.executor != null ? builder.executor
+                    : builder.httpClient.executor().orElse(ForkJoinPool.commonPool());
+        } else {
+            Executor executor = builder.executor;
+            if (executor == null) {
+                this.ownedExecutor = Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, "entsoe-client-http");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                executor = this.ownedExecutor;
+            } else {
+                this.ownedExecutor = null;
+            }
+            this.transport = builder.transport != null ? builder.transport : new HttpClientTransport(HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(builder.connectTimeout)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .executor(executor)
+                    .build());
+            this.asyncExecutor = executor;
+        }
+    }
+
+    private static String requireToken(String entsoeSecurityToken) {
+        if (entsoeSecurityToken==null) {
+            throw new IllegalArgumentException("entsoeSecurityToken must not be null");
+        }
+        return entsoeSecurityToken;
+    }
+
+    /**
+     * Creates a builder to configure a new client.
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Releases the resources of this client. The client must not be used afterwards.
+     * An executor or HttpClient that was passed to the {@link Builder} is not shut down.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
     }
 
     /**
@@ -89,80 +191,105 @@ public class EntsoeClient implements EntsoeDefines {
         return timeSeries;
     }
 
-    private void cutTimeSeries(ZonedDateTime cutOffDate, TreeMap<EntsoeDate, BigDecimal> timeSeries) {
+    static void cutTimeSeries(ZonedDateTime cutOffDate, TreeMap<EntsoeDate, BigDecimal> timeSeries) {
         if (cutOffDate != null) {
-            TreeSet<EntsoeDate> entsoeDates = new TreeSet<>(timeSeries.keySet());
-            for (EntsoeDate date : entsoeDates) {
-                if (date.utcDate().isBefore(cutOffDate.minusHours(1))) {
-                    timeSeries.remove(date);
-                }
+            // remove all dates before cutOffDate minus one hour
+            long cutOffSecond = cutOffDate.toEpochSecond() - 3600;
+            long cutOffMinute = Math.floorDiv(cutOffSecond, 60);
+            if (cutOffSecond % 60 != 0 || cutOffDate.getNano() != 0) {
+                cutOffMinute++;
             }
+            timeSeries.headMap(new EntsoeDate(cutOffMinute, EntsoeDate.UTC_ZONE), false).clear();
         }
     }
 
     private TreeMap<EntsoeDate, BigDecimal> getTimeSeriesInternal(EntsoeDate entsoeDate, EntsoeResolution entsoeResolution) {
-        TreeMap<EntsoeDate, BigDecimal> res = new TreeMap<>();
-        String spotpriceDataRaw = getSpotpriceDataRaw(entsoeDate);
-        if (spotpriceDataRaw == null) {
-            return res;
+        return getTimeSeriesInternal(createRequest(EntsoePeriod.ofDay(entsoeDate)), entsoeResolution);
+    }
+
+    private TreeMap<EntsoeDate, BigDecimal> getTimeSeriesInternal(EntsoeRequest entsoeRequest, EntsoeResolution entsoeResolution) {
+        if (isCached(entsoeRequest) || priceStore != null) {
+            return join(loadTimeSeriesAsync(entsoeRequest, entsoeResolution));
         }
-        DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
+        return parseTimeSeries(getSpotpriceDataStream(entsoeRequest), entsoeResolution);
+    }
+
+    private boolean isCached(EntsoeRequest entsoeRequest) {
+        return timeSeriesCache != null && entsoeRequest.period().start().utcDate().toLocalDate().equals(entsoeRequest.period().end().utcDate().toLocalDate());
+    }
+
+    private EntsoeRequest createRequest(EntsoePeriod entsoePeriod) {
+        return new EntsoeRequest(biddingZone, documentType, entsoePeriod);
+    }
+
+    private TreeMap<EntsoeDate, BigDecimal> parseTimeSeries(HttpResponse<InputStream> response, EntsoeResolution entsoeResolution) {
+        TreeMap<EntsoeDate, BigDecimal> res = new TreeMap<>();
+        parse(response, entsoeResolution, (epochMinute, price) ->
+                res.put(PriceSeries.toEntsoeDate(epochMinute), BigDecimal.valueOf(price, 2)));
+        return res;
+    }
+
+    /**
+     * Parse a response. A response without data leaves the consumer untouched.
+     * @throws EntsoeException if the response is an error
+     */
+    private void parse(HttpResponse<InputStream> response, EntsoeResolution entsoeResolution, PricePointConsumer consumer) {
         try {
-            DocumentBuilder builder = builderFactory.newDocumentBuilder();
-            Document xmlDocument = builder.parse(new ByteArrayInputStream(spotpriceDataRaw.getBytes(StandardCharsets.UTF_8)));
-            XPath xPath = XPathFactory.newInstance().newXPath();
-            String expression = "/Publication_MarketDocument/TimeSeries/Period/resolution";
-            NodeList nodeList = (NodeList) xPath.compile(expression).evaluate(xmlDocument, XPathConstants.NODESET);
-            int length = nodeList.getLength();
-            List<Node> nodes = new ArrayList<>();
-            for (int i = 0; i < length; i++) {
-                Node resoultionNode = nodeList.item(i);
-                String resolution = resoultionNode.getTextContent();
-                if (resolution.equals(entsoeResolution.name())) {
-                    nodes.add(resoultionNode.getParentNode()); // Period
-                }
+            if (response.statusCode() / 100 != 2) {
+                throw getError(response);
             }
-            for (Node node : nodes) {
-                String start = null;
-                NodeList childNodes = node.getChildNodes();
-                for (int i = 0; i < childNodes.getLength(); i++) {
-                    Node item = childNodes.item(i);
-                    String nodeName = item.getNodeName();
-                    if (nodeName.equals("timeInterval")) {
-                        NodeList childNodes1 = item.getChildNodes();
-                        for (int j = 0; j < childNodes1.getLength(); j++) {
-                            Node item1 = childNodes1.item(j);
-                            if (item1.getNodeName().equals("start")) {
-                                start = item1.getTextContent();
-                                LOGGER.fine("Found start of time interval: " + start);
-                            }
-                        }
-                    } else if (nodeName.equals("Point") && start != null) {
-                        NodeList childNodes1 = item.getChildNodes();
-                        Integer position = null;
-                        BigDecimal price = null;
-                        for (int j = 0; j < childNodes1.getLength(); j++) {
-                            Node item1 = childNodes1.item(j);
-                            if (item1.getNodeName().equals("position")) {
-                                String textContent = item1.getTextContent();
-                                position = Integer.parseInt(textContent);
-                            } else if (item1.getNodeName().equals("price.amount")) {
-                                String textContent = item1.getTextContent();
-                                price = new BigDecimal(textContent).divide(BigDecimal.TEN, RoundingMode.HALF_UP);
-                            }
-                        }
-                        if (position != null && price!=null) {
-                            ZonedDateTime zonedDateTime = ZonedDateTime.parse(start);
-                            EntsoeDate entsoeStartDate = new EntsoeDate(zonedDateTime);
-                            EntsoeDate priceDate = EntsoeDate.fromENTSOEDate(entsoeStartDate, position - 1, entsoeResolution);
-                            LOGGER.finer("price mapping " + priceDate + "=" + price);
-                            res.put(priceDate, price.setScale(2, RoundingMode.HALF_UP));
-                        }
-                    }
-                }
-            }
-            return res;
-        } catch (ParserConfigurationException | SAXException | IOException | XPathExpressionException e) {
+            parse(response.body(), entsoeResolution, consumer);
+        } catch (EntsoeNoDataException e) {
+            LOGGER.fine(e.getMessage());
+        }
+    }
+
+    private EntsoeException getError(HttpResponse<InputStream> response) {
+        byte[] body;
+        try (InputStream in = response.body()) {
+            body = in.readNBytes(64 * 1024);
+        } catch (IOException e) {
+            body = new byte[0];
+        }
+        try {
+            timeSeriesParser.parse(new ByteArrayInputStream(body), EntsoeResolution.PT60M, (epochMinute, price) -> {
+            });
+        } catch (EntsoeAcknowledgementException e) {
+            return e;
+        } catch (IOException | RuntimeException e) {
+            // not an acknowledgement
+        }
+        String text = new String(body, 0, Math.min(body.length, 200), StandardCharsets.UTF_8);
+        return new EntsoeHttpException(response.statusCode(), null, "HTTP " + response.statusCode() + ": " + text);
+    }
+
+    private void parse(InputStream spotpriceData, EntsoeResolution entsoeResolution, PricePointConsumer consumer) {
+        if (spotpriceData == null) {
+            return;
+        }
+        if (metrics == EntsoeMetrics.NOOP) {
+            parse(spotpriceData, entsoeResolution, consumer, timeSeriesParser, aggregation);
+            return;
+        }
+        long start = System.nanoTime();
+        int[] points = new int[1];
+        parse(spotpriceData, entsoeResolution, (epochMinute, price) -> {
+            points[0]++;
+            consumer.accept(epochMinute, price);
+        }, timeSeriesParser, aggregation);
+        metrics.onParse(entsoeResolution, points[0], System.nanoTime() - start);
+    }
+
+    /**
+     * Parse a document. If it does not contain the requested resolution, the published resolution is converted.
+     */
+    private static void parse(InputStream spotpriceData, EntsoeResolution entsoeResolution, PricePointConsumer consumer,
+                              TimeSeriesParser timeSeriesParser, PriceSeries.Aggregation aggregation) {
+        try (spotpriceData) {
+            ResolutionConverter converter = new ResolutionConverter(entsoeResolution, aggregation, consumer);
+            timeSeriesParser.parseAll(spotpriceData, converter);
+            converter.finish();
+        } catch (IOException e) {
             throw new IllegalStateException(e);
         }
     }
@@ -185,18 +312,167 @@ public class EntsoeClient implements EntsoeDefines {
      **/
     public TreeMap<EntsoeDate, BigDecimal> getTimeSeriesEx(EntsoeDate entsoeDate, EntsoeResolution entsoeResolution) {
         var timeSeriesInternal = getTimeSeriesInternal(entsoeDate, entsoeResolution);
-        var today = ZonedDateTime.now(ZoneId.of("UTC")).withHour(0).withMinute(0).withSecond(0).withNano(0);
-        var tomorrow = today.plusDays(1);
-        EntsoeDate entsoeDate2 = new EntsoeDate(tomorrow);
-        TreeMap<EntsoeDate, BigDecimal> timeSeries2 = getTimeSeries(entsoeDate2, EntsoeResolution.PT60M);
-        if (!timeSeries2.isEmpty()) {
-            for (EntsoeDate ed : timeSeries2.keySet()) {
-                if (!timeSeriesInternal.containsKey(ed)) {
-                    timeSeriesInternal.put(ed, timeSeries2.get(ed));
+        TreeMap<EntsoeDate, BigDecimal> timeSeries2 = getTimeSeries(getTomorrow(), entsoeResolution);
+        return mergeTimeSeries(timeSeriesInternal, timeSeries2);
+    }
+
+    /**
+     * Returns a TimeSeries of all days between from and to (both inclusive).
+     * The range is requested with as few requests as possible. Ranges longer than one year
+     * are split into one request per year, which are sent concurrently within the limits of the rate limiter.
+     * @param from The first day to request the day ahead spot price data for
+     * @param to The last day to request the day ahead spot price data for
+     * @param entsoeResolution The resolution of the data. For spot price plans in Germany {@link EntsoeResolution#PT60M} must be used.
+     * @return A map that correlates timeslots and day ahead spot prices for the specified range
+     */
+    public TreeMap<EntsoeDate, BigDecimal> getTimeSeries(EntsoeDate from, EntsoeDate to, EntsoeResolution entsoeResolution) {
+        return getTimeSeries(createRequest(new EntsoePeriod(from, to)), entsoeResolution);
+    }
+
+    /**
+     * Returns a TimeSeries of the specified bidding zone and date
+     * @param biddingZone The bidding zone
+     * @param entsoeDate The date to request the day ahead spot price data for
+     * @param entsoeResolution The resolution of the data
+     * @return A map that correlates timeslots and day ahead spot prices for the specified date
+     */
+    public TreeMap<EntsoeDate, BigDecimal> getTimeSeries(BiddingZone biddingZone, EntsoeDate entsoeDate, EntsoeResolution entsoeResolution) {
+        return getTimeSeriesInternal(new EntsoeRequest(biddingZone, documentType, EntsoePeriod.ofDay(entsoeDate)), entsoeResolution);
+    }
+
+    /**
+     * Returns a TimeSeries for any combination of bidding zone, document type and range of days.
+     * See {@link #getTimeSeries(EntsoeDate, EntsoeDate, EntsoeResolution)}
+     * @param entsoeRequest The request parameters
+     * @param entsoeResolution The resolution of the data
+     * @return A map that correlates timeslots and prices for the specified request. The map is empty if the API has no data.
+     * @throws EntsoeException if the request failed after all retries or the API rejected it
+     */
+    public TreeMap<EntsoeDate, BigDecimal> getTimeSeries(EntsoeRequest entsoeRequest, EntsoeResolution entsoeResolution) {
+        List<EntsoeRequest> requests = entsoeRequest.split();
+        if (requests.size() == 1) {
+            return getTimeSeriesInternal(requests.get(0), entsoeResolution);
+        }
+        return join(getTimeSeriesAsync(requests, entsoeResolution));
+    }
+
+    /**
+     * Returns the TimeSeries of several bidding zones for the same date.
+     * The bidding zones are requested concurrently within the limits of the rate limiter.
+     * @param biddingZones The bidding zones
+     * @param entsoeDate The date to request the day ahead spot price data for
+     * @param entsoeResolution The resolution of the data
+     * @return A map of the time series per bidding zone
+     */
+    public Map<BiddingZone, TreeMap<EntsoeDate, BigDecimal>> getTimeSeries(Collection<BiddingZone> biddingZones, EntsoeDate entsoeDate, EntsoeResolution entsoeResolution) {
+        return join(getTimeSeriesAsync(biddingZones, entsoeDate, entsoeResolution));
+    }
+
+    /**
+     * Returns the prices of the specified date as {@link PriceSeries}.
+     * Unlike {@link #getTimeSeries(EntsoeDate, EntsoeResolution)} no object is created per price.
+     * @param entsoeDate The date to request the day ahead spot price data for
+     * @param entsoeResolution The resolution of the data
+     * @return the prices of the specified date. The series is empty if no prices are available.
+     */
+    public PriceSeries getPriceSeries(EntsoeDate entsoeDate, EntsoeResolution entsoeResolution) {
+        return getPriceSeries(createRequest(EntsoePeriod.ofDay(entsoeDate)), entsoeResolution);
+    }
+
+    /**
+     * Returns the prices of all days between from and to (both inclusive) as {@link PriceSeries}.
+     * See {@link #getTimeSeries(EntsoeDate, EntsoeDate, EntsoeResolution)}
+     * @param from The first day to request the day ahead spot price data for
+     * @param to The last day to request the day ahead spot price data for
+     * @param entsoeResolution The resolution of the data
+     * @return the prices of the specified range
+     */
+    public PriceSeries getPriceSeries(EntsoeDate from, EntsoeDate to, EntsoeResolution entsoeResolution) {
+        return getPriceSeries(createRequest(new EntsoePeriod(from, to)), entsoeResolution);
+    }
+
+    /**
+     * Returns the prices of a request as {@link PriceSeries}.
+     * See {@link #getTimeSeries(EntsoeRequest, EntsoeResolution)}
+     * @param entsoeRequest The request parameters
+     * @param entsoeResolution The resolution of the data
+     * @return the prices of the specified request
+     */
+    public PriceSeries getPriceSeries(EntsoeRequest entsoeRequest, EntsoeResolution entsoeResolution) {
+        if (timeSeriesCache != null || priceStore != null) {
+            return PriceSeries.of(getTimeSeries(entsoeRequest, entsoeResolution), entsoeResolution);
+        }
+        PriceSeries.Builder builder = new PriceSeries.Builder(entsoeResolution);
+        List<EntsoeRequest> requests = entsoeRequest.split();
+        if (requests.size() == 1) {
+            fetch(requests.get(0), entsoeResolution, builder);
+        } else {
+            PricePointConsumer consumer = (epochMinute, price) -> {
+                synchronized (builder) {
+                    builder.accept(epochMinute, price);
                 }
-            }
+            };
+            join(CompletableFuture.allOf(requests.stream()
+                    .map(request -> sendAsync(request, ContentEncoding.ofInputStream())
+                            .thenAcceptAsync(response -> parse(response, entsoeResolution, consumer), asyncExecutor))
+                    .toArray(CompletableFuture[]::new)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Passes the prices of a request to the consumer while the response is parsed, without collecting them first.
+     * Prices of the requested resolution are passed on directly. Slots that a document has only in another resolution,
+     * e.g. the days before a bidding zone switched to a finer resolution, are collected and converted at the end of
+     * the document, so memory use grows with the converted part and those prices arrive after the others of their
+     * document. Requests longer than a year are sent one after the other, so the consumer is not called concurrently.
+     * If a cache or price store is configured, the prices are read through it.
+     * @param entsoeRequest The request parameters
+     * @param entsoeResolution The resolution of the data
+     * @param consumer receives each price. It is not called if the API has no data.
+     * @throws EntsoeException if a request failed after all retries or the API rejected it
+     */
+    public void fetch(EntsoeRequest entsoeRequest, EntsoeResolution entsoeResolution, PricePointConsumer consumer) {
+        if (timeSeriesCache != null || priceStore != null) {
+            PriceSeries.of(getTimeSeries(entsoeRequest, entsoeResolution), entsoeResolution).forEach(consumer);
+            return;
+        }
+        for (EntsoeRequest request : entsoeRequest.split()) {
+            parse(getSpotpriceDataStream(request), entsoeResolution, consumer);
         }
-        return timeSeriesInternal;
+    }
+
+    /**
+     * Asynchronous variant of {@link #fetch(EntsoeRequest, EntsoeResolution, PricePointConsumer)}.
+     * The consumer is called on the executor of the client, never concurrently.
+     * @param entsoeRequest The request parameters
+     * @param entsoeResolution The resolution of the data
+     * @param consumer receives each price
+     * @return a future that completes when all prices were passed to the consumer
+     */
+    public CompletableFuture<Void> fetchAsync(EntsoeRequest entsoeRequest, EntsoeResolution entsoeResolution, PricePointConsumer consumer) {
+        if (timeSeriesCache != null || priceStore != null) {
+            return getTimeSeriesAsync(entsoeRequest, entsoeResolution)
+                    .thenAccept(timeSeries -> PriceSeries.of(timeSeries, entsoeResolution).forEach(consumer));
+        }
+        CompletableFuture<Void> res = CompletableFuture.completedFuture(null);
+        for (EntsoeRequest request : entsoeRequest.split()) {
+            res = res.thenCompose(ignored -> sendAsync(request, ContentEncoding.ofInputStream()))
+                    .thenAcceptAsync(response -> parse(response, entsoeResolution, consumer), asyncExecutor);
+        }
+        return res;
+    }
+
+    private static EntsoeDate getTomorrow() {
+        var today = ZonedDateTime.now(ZoneId.of("UTC")).withHour(0).withMinute(0).withSecond(0).withNano(0);
+        return new EntsoeDate(today.plusDays(1));
+    }
+
+    private static TreeMap<EntsoeDate, BigDecimal> mergeTimeSeries(TreeMap<EntsoeDate, BigDecimal> timeSeries, TreeMap<EntsoeDate, BigDecimal> timeSeries2) {
+        for (var entry : timeSeries2.entrySet()) {
+            timeSeries.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+        return timeSeries;
     }
 
     /**
@@ -218,26 +494,255 @@ public class EntsoeClient implements EntsoeDefines {
      * @return the raw XML response of the ENTSO-E API
      */
     public String getSpotpriceDataRaw(EntsoeDate entsoeDateIn) {
-        ZonedDateTime zonedDateTime = entsoeDateIn.utcDate().withMinute(0).withHour(0);
-        EntsoeDate entsoeDate = new EntsoeDate(zonedDateTime);
-        apiRateLimiter.acquire();
-        String requestURL = getRequestURL(new EntsoeDate(entsoeDate.utcDate()));
-        LOGGER.log(Level.FINE, "GET " + requestURL);
-
-        HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(requestURL))
+        return getSpotpriceDataRaw(createRequest(EntsoePeriod.ofDay(entsoeDateIn)));
+    }
+
+    /**
+     * Returns the raw data as XML String.
+     * The document is held in memory completely. The time series methods parse the response while it is received instead.
+     * @param entsoeRequest The request parameters. The period must not be longer than the API accepts.
+     * @return the raw XML response of the ENTSO-E API, which is an acknowledgement document if the API has no data
+     * @throws EntsoeException if the request failed after all retries
+     */
+    public String getSpotpriceDataRaw(EntsoeRequest entsoeRequest) {
+        return join(sendAsync(entsoeRequest, ContentEncoding.ofString())).body();
+    }
+
+    /**
+     * Returns the spot price data as stream, so it can be parsed without buffering the whole document.
+     * @param entsoeRequest The request parameters
+     * @return the response
+     */
+    private HttpResponse<InputStream> getSpotpriceDataStream(EntsoeRequest entsoeRequest) {
+        return join(sendAsync(entsoeRequest, ContentEncoding.ofInputStream()));
+    }
+
+    private HttpRequest buildHttpRequest(EntsoeRequest entsoeRequest) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "GET " + getRequestURL(entsoeRequest, "***"));
+        }
+        return HttpRequest.newBuilder()
+                .uri(URI.create(getRequestURL(entsoeRequest)))
+                .header("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING)
+                .timeout(requestTimeout)
                 .build();
+    }
+
+    private <T> HttpResponse.BodyHandler<T> discardRetryable(HttpResponse.BodyHandler<T> bodyHandler) {
+        return responseInfo -> retryPolicy.isRetryable(responseInfo.statusCode())
+                ? HttpResponse.BodySubscribers.replacing(null) : bodyHandler.apply(responseInfo);
+    }
+
+    private <T> HttpResponse.BodyHandler<T> countBytes(EntsoeRequest entsoeRequest, HttpResponse.BodyHandler<T> bodyHandler) {
+        if (metrics == EntsoeMetrics.NOOP) {
+            return bodyHandler;
+        }
+        return responseInfo -> new CountingBodySubscriber<>(bodyHandler.apply(responseInfo),
+                bytes -> metrics.onBytesReceived(entsoeRequest, bytes));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getTimeSeries(EntsoeDate, EntsoeResolution)}.
+     * Neither the rate limiter nor the HTTP request block the calling thread.
+     * @param entsoeDate The date to request the day ahead spot price data for
+     * @param entsoeResolution The resolution of the data. For spot price plans in Germany {@link EntsoeResolution#PT60M} must be used.
+     * @return A future of a map that correlates timeslots and day ahead spot prices for the specified date
+     */
+    public CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> getTimeSeriesAsync(EntsoeDate entsoeDate, EntsoeResolution entsoeResolution) {
+        return getTimeSeriesAsync(createRequest(EntsoePeriod.ofDay(entsoeDate)), entsoeResolution);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getTimeSeries(EntsoeDate, EntsoeDate, EntsoeResolution)}.
+     * @param from The first day to request the day ahead spot price data for
+     * @param to The last day to request the day ahead spot price data for
+     * @param entsoeResolution The resolution of the data. For spot price plans in Germany {@link EntsoeResolution#PT60M} must be used.
+     * @return A future of a map that correlates timeslots and day ahead spot prices for the specified range
+     */
+    public CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> getTimeSeriesAsync(EntsoeDate from, EntsoeDate to, EntsoeResolution entsoeResolution) {
+        return getTimeSeriesAsync(createRequest(new EntsoePeriod(from, to)), entsoeResolution);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getTimeSeries(EntsoeRequest, EntsoeResolution)}.
+     * @param entsoeRequest The request parameters
+     * @param entsoeResolution The resolution of the data
+     * @return A future of a map that correlates timeslots and prices for the specified request
+     */
+    public CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> getTimeSeriesAsync(EntsoeRequest entsoeRequest, EntsoeResolution entsoeResolution) {
+        return getTimeSeriesAsync(entsoeRequest.split(), entsoeResolution);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getTimeSeries(Collection, EntsoeDate, EntsoeResolution)}.
+     * @param biddingZones The bidding zones
+     * @param entsoeDate The date to request the day ahead spot price data for
+     * @param entsoeResolution The resolution of the data
+     * @return A future of a map of the time series per bidding zone
+     */
+    public CompletableFuture<Map<BiddingZone, TreeMap<EntsoeDate, BigDecimal>>> getTimeSeriesAsync(Collection<BiddingZone> biddingZones, EntsoeDate entsoeDate, EntsoeResolution entsoeResolution) {
+        CompletableFuture<Map<BiddingZone, TreeMap<EntsoeDate, BigDecimal>>> res = CompletableFuture.completedFuture(new EnumMap<>(BiddingZone.class));
+        for (BiddingZone zone : biddingZones) {
+            res = res.thenCombine(getTimeSeriesAsync(new EntsoeRequest(zone, documentType, EntsoePeriod.ofDay(entsoeDate)), entsoeResolution), (map, timeSeries) -> {
+                map.put(zone, timeSeries);
+                return map;
+            });
+        }
+        return res;
+    }
 
+    private CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> getTimeSeriesAsync(List<EntsoeRequest> requests, EntsoeResolution entsoeResolution) {
+        CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> res = CompletableFuture.completedFuture(new TreeMap<>());
+        for (EntsoeRequest request : requests) {
+            res = res.thenCombine(loadTimeSeriesAsync(request, entsoeResolution), EntsoeClient::mergeTimeSeries);
+        }
+        return res;
+    }
+
+    private CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> loadTimeSeriesAsync(EntsoeRequest entsoeRequest, EntsoeResolution entsoeResolution) {
+        if (isCached(entsoeRequest)) {
+            boolean[] hit = new boolean[1];
+            CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> res = timeSeriesCache.get(TimeSeriesCache.Key.of(entsoeRequest, entsoeResolution),
+                    () -> readThroughAsync(entsoeRequest, entsoeResolution), hit);
+            metrics.onCacheAccess(hit[0]);
+            return res;
+        }
+        return readThroughAsync(entsoeRequest, entsoeResolution);
+    }
+
+    private CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> readThroughAsync(EntsoeRequest entsoeRequest, EntsoeResolution entsoeResolution) {
+        if (priceStore == null) {
+            return fetchTimeSeriesAsync(entsoeRequest, entsoeResolution);
+        }
+        BiddingZone zone = entsoeRequest.biddingZone();
+        // the UTC days of the period are the market days the API answers with
+        TreeMap<EntsoeDate, BigDecimal> stored = priceStore.read(zone, entsoeResolution,
+                entsoeRequest.period().start().utcDate().toLocalDate(), entsoeRequest.period().end().utcDate().toLocalDate());
+        if (stored != null) {
+            return CompletableFuture.completedFuture(stored);
+        }
+        return fetchTimeSeriesAsync(entsoeRequest, entsoeResolution).thenApply(timeSeries -> {
+            priceStore.write(zone, entsoeResolution, timeSeries);
+            return timeSeries;
+        });
+    }
+
+    private CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> fetchTimeSeriesAsync(EntsoeRequest entsoeRequest, EntsoeResolution entsoeResolution) {
+        return sendAsync(entsoeRequest, ContentEncoding.ofInputStream())
+                .thenApplyAsync(response -> parseTimeSeries(response, entsoeResolution), asyncExecutor);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
         try {
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response!=null) {
-                return response.body();
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
-        } catch (IOException | InterruptedException e) {
-            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            throw e;
         }
-        return null;
+    }
+
+    /**
+     * Asynchronous variant of {@link #getTimeSeriesEx(EntsoeDate, EntsoeResolution)}.
+     * Both days are requested concurrently.
+     * @param entsoeDate The date to request the day ahead spot price data for
+     * @param entsoeResolution The resolution of the data. For spot price plans in Germany {@link EntsoeResolution#PT60M} must be used.
+     * @return A future of a map that correlates timeslots and day ahead spot prices for the specified date and if available, also the following day
+     */
+    public CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> getTimeSeriesExAsync(EntsoeDate entsoeDate, EntsoeResolution entsoeResolution) {
+        return getTimeSeriesAsync(entsoeDate, entsoeResolution)
+                .thenCombine(getTimeSeriesAsync(getTomorrow(), entsoeResolution), EntsoeClient::mergeTimeSeries);
+    }
+
+    /**
+     * Asynchronous variant of {@link #getSpotpriceDataRaw(EntsoeDate)}.
+     * @param entsoeDate The date to request the day ahead spot price data for
+     * @return A future of the raw XML response of the ENTSO-E API. Completes exceptionally with an {@link EntsoeException} if the request failed.
+     */
+    public CompletableFuture<String> getSpotpriceDataRawAsync(EntsoeDate entsoeDate) {
+        return sendAsync(createRequest(EntsoePeriod.ofDay(entsoeDate)), ContentEncoding.ofString()).thenApply(HttpResponse::body);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(EntsoeRequest entsoeRequest, HttpResponse.BodyHandler<T> bodyHandler) {
+        return sendAsync(entsoeRequest, bodyHandler, 1);
+    }
+
+    /**
+     * @return the rate limiter of the requests of this client
+     */
+    ApiRateLimiter getApiRateLimiter() {
+        return apiRateLimiter;
+    }
+
+    /**
+     * The raw response of a request with its status code, for {@link PriceServer}.
+     */
+    CompletableFuture<HttpResponse<String>> getSpotpriceDataResponseAsync(EntsoeRequest entsoeRequest) {
+        return sendAsync(entsoeRequest, ContentEncoding.ofString());
+    }
+
+    /**
+     * Send a request, retrying as the {@link RetryPolicy} says.
+     * @return a future of the first response that is not retried.
+     * Completes exceptionally with an {@link EntsoeException} if all attempts failed.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(EntsoeRequest entsoeRequest, HttpResponse.BodyHandler<T> bodyHandler, int attempt) {
+        if (circuitBreaker != null) {
+            try {
+                circuitBreaker.acquire();
+            } catch (EntsoeCircuitOpenException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        int queueDepth = apiRateLimiter.getQueueDepth();
+        long acquireStart = System.nanoTime();
+        long[] sendStart = new long[1];
+        return apiRateLimiter.acquireAsync(asyncExecutor)
+                .thenCompose(permit -> {
+                    sendStart[0] = System.nanoTime();
+                    metrics.onRateLimiterWait(sendStart[0] - acquireStart, queueDepth);
+                    return transport.send(entsoeRequest, buildHttpRequest(entsoeRequest), countBytes(entsoeRequest, discardRetryable(bodyHandler)));
+                })
+                .handle((response, e) -> {
+                    long nanos = System.nanoTime() - sendStart[0];
+                    EntsoeException failure;
+                    Duration retryAfter = null;
+                    if (e == null) {
+                        metrics.onRequest(entsoeRequest, response.statusCode(), nanos);
+                        if (!retryPolicy.isRetryable(response.statusCode())) {
+                            if (circuitBreaker != null) {
+                                circuitBreaker.onSuccess();
+                            }
+                            return CompletableFuture.completedFuture(response);
+                        }
+                        retryAfter = RetryPolicy.getRetryAfter(response.headers(), Clock.systemUTC());
+                        if (retryAfter != null) {
+                            apiRateLimiter.pause(retryAfter);
+                        }
+                        failure = new EntsoeHttpException(response.statusCode(), retryAfter,
+                                "HTTP " + response.statusCode() + " for " + getRequestURL(entsoeRequest, "***"));
+                    } else {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (sendStart[0] != 0) {
+                            metrics.onRequestFailed(entsoeRequest, cause, nanos);
+                        }
+                        failure = new EntsoeException("Request failed: " + cause, cause);
+                    }
+                    if (circuitBreaker != null) {
+                        circuitBreaker.onFailure();
+                    }
+                    Duration backoff = retryPolicy.getBackoff(attempt, retryAfter);
+                    if (backoff == null) {
+                        LOGGER.log(Level.SEVERE, failure.getMessage(), failure);
+                        return CompletableFuture.<HttpResponse<T>>failedFuture(failure);
+                    }
+                    LOGGER.warning(failure.getMessage() + ", attempt " + attempt + ", retry in " + backoff);
+                    Executor delayed = CompletableFuture.delayedExecutor(backoff.toNanos(), TimeUnit.NANOSECONDS, asyncExecutor);
+                    return CompletableFuture.runAsync(() -> {
+                    }, delayed).thenCompose(ignored -> sendAsync(entsoeRequest, bodyHandler, attempt + 1));
+                })
+                .thenCompose(Function.identity());
     }
 
     /**
@@ -246,20 +751,232 @@ public class EntsoeClient implements EntsoeDefines {
      * @return the URL to call
      */
     public String getRequestURL(EntsoeDate entsoeDate) {
-        LOGGER.fine("ENTSOE securityToken=" + entsoeSecurityToken);
-        ZonedDateTime utcDate = entsoeDate.utcDate();
-        ZonedDateTime startDate = utcDate.withHour(0).withMinute(0);
-        ZonedDateTime endDate = utcDate.withHour(23).withMinute(0);
-        EntsoeDate entsoeDateStart = new EntsoeDate(startDate);
-        EntsoeDate entsoeDateEnd = new EntsoeDate(endDate);
+        return getRequestURL(EntsoePeriod.ofDay(entsoeDate));
+    }
+
+    /**
+     * Assemble the request URL for a range of days
+     * @param entsoePeriod The days to request the day ahead spot price data for
+     * @return the URL to call
+     */
+    public String getRequestURL(EntsoePeriod entsoePeriod) {
+        return getRequestURL(createRequest(entsoePeriod));
+    }
+
+    /**
+     * Assemble the request URL
+     * @param entsoeRequest The request parameters
+     * @return the URL to call
+     */
+    public String getRequestURL(EntsoeRequest entsoeRequest) {
+        return getRequestURL(entsoeRequest, entsoeSecurityToken);
+    }
+
+    private String getRequestURL(EntsoeRequest entsoeRequest, String securityToken) {
+        String domain = entsoeRequest.biddingZone().getEic(); // in_Domain and out_Domain must be the same
         return apiUrl + "?"
-                + "securityToken=" + entsoeSecurityToken + "&"
-                + "documentType=" + documentType + "&"
-                + "in_Domain=" + in_Domain + "&"
-                + "out_Domain=" + out_Domain + "&"
-                + "periodStart=" + entsoeDateStart + "&"
-                + "periodEnd=" + entsoeDateEnd;
+                + (entsoeSecurityToken != null ? "securityToken=" + securityToken + "&" : "")
+                + "documentType=" + entsoeRequest.documentType().name() + "&"
+                + "in_Domain=" + domain + "&"
+                + "out_Domain=" + domain + "&"
+                + "periodStart=" + entsoeRequest.period().periodStart() + "&"
+                + "periodEnd=" + entsoeRequest.period().periodEnd();
     }
 
+    /**
+     * Builder for {@link EntsoeClient}.
+     * By default the client owns a single HttpClient that uses HTTP/2 where available and
+     * keeps connections alive between requests.
+     */
+    public static class Builder {
+
+        private String entsoeSecurityToken;
+        private HttpClient httpClient;
+        private EntsoeTransport transport;
+        private Executor executor;
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration requestTimeout = Duration.ofSeconds(60);
+        private ApiRateLimiter apiRateLimiter;
+        private TimeSeriesParser timeSeriesParser;
+        private BiddingZone biddingZone = BiddingZone.DE_LU;
+        private EntsoeDocumentType documentType = EntsoeDocumentType.A44;
+        private TimeSeriesCache timeSeriesCache;
+        private PriceStore priceStore;
+        private EntsoeMetrics metrics;
+        private RetryPolicy retryPolicy;
+        private CircuitBreaker circuitBreaker;
+        private PriceSeries.Aggregation aggregation;
+        private URI sidecar;
+
+        private Builder() {
+        }
+
+        /**
+         * @param entsoeSecurityToken The ENTSOE_SECURITY_TOKEN. If not set, it is read from Java Properties or ENV Variable.
+         * @return this builder
+         */
+        public Builder securityToken(String entsoeSecurityToken) {
+            this.entsoeSecurityToken = entsoeSecurityToken;
+            return this;
+        }
+
+        /**
+         * @param httpClient A preconfigured HttpClient. If set, {@link #executor(Executor)} and {@link #connectTimeout(Duration)} are ignored.
+         * @return this builder
+         */
+        public Builder httpClient(HttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        /**
+         * @param transport Sends the requests instead of an HttpClient, e.g. a {@link ReplayTransport} for tests without network.
+         *                  If set, {@link #httpClient(HttpClient)} and {@link #connectTimeout(Duration)} are ignored.
+         * @return this builder
+         */
+        public Builder transport(EntsoeTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * @param executor The executor used by the HttpClient and the asynchronous API. It is not shut down by {@link EntsoeClient#close()}.
+         * @return this builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param connectTimeout The connect timeout. Default is 10 seconds.
+         * @return this builder
+         */
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * @param requestTimeout The timeout of a single request. Default is 60 seconds.
+         * @return this builder
+         */
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * @param apiRateLimiter The rate limiter. Share one instance between clients that use the same token, or use
+         *                       {@link ApiRateLimiter#shared} for clients in several processes.
+         * @return this builder
+         */
+        public Builder apiRateLimiter(ApiRateLimiter apiRateLimiter) {
+            this.apiRateLimiter = apiRateLimiter;
+            return this;
+        }
+
+        /**
+         * @param timeSeriesParser The parser. Default is {@link TimeSeriesParser#defaultParser()}.
+         * @return this builder
+         */
+        public Builder timeSeriesParser(TimeSeriesParser timeSeriesParser) {
+            this.timeSeriesParser = timeSeriesParser;
+            return this;
+        }
+
+        /**
+         * @param biddingZone The bidding zone of all methods without explicit bidding zone. Default is {@link BiddingZone#DE_LU}.
+         * @return this builder
+         */
+        public Builder biddingZone(BiddingZone biddingZone) {
+            this.biddingZone = biddingZone;
+            return this;
+        }
+
+        /**
+         * @param documentType The document type of all methods without explicit request. Default is {@link EntsoeDocumentType#A44}.
+         * @return this builder
+         */
+        public Builder documentType(EntsoeDocumentType documentType) {
+            this.documentType = documentType;
+            return this;
+        }
+
+        /**
+         * @param timeSeriesCache Cache for the time series of single days. Disabled by default.
+         * @return this builder
+         */
+        public Builder timeSeriesCache(TimeSeriesCache timeSeriesCache) {
+            this.timeSeriesCache = timeSeriesCache;
+            return this;
+        }
+
+        /**
+         * @param priceStore Persistent store that is read before and written after each request. Disabled by default.
+         * @return this builder
+         */
+        public Builder priceStore(PriceStore priceStore) {
+            this.priceStore = priceStore;
+            return this;
+        }
+
+        /**
+         * @param metrics Receives request, rate limiter, parser and cache measurements. Disabled by default.
+         * @return this builder
+         */
+        public Builder metrics(EntsoeMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * @param retryPolicy Decides which failed requests are sent again. Default is {@link RetryPolicy#DEFAULT}, use {@link RetryPolicy#NONE} to disable retries.
+         * @return this builder
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * @param circuitBreaker Fails requests immediately while the API is unavailable. Disabled by default.
+         * @return this builder
+         */
+        public Builder circuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * @param aggregation How prices are combined if the requested resolution is coarser than the published one.
+         *                    Default is {@link PriceSeries.Aggregation#MEAN}.
+         * @return this builder
+         */
+        public Builder aggregation(PriceSeries.Aggregation aggregation) {
+            this.aggregation = aggregation;
+            return this;
+        }
+
+        /**
+         * @param sidecar The base URL of a {@link PriceServer}, e.g. {@code http://localhost:8090}. If set, requests are
+         *                sent to the server instead of the ENTSO-E API, and no security token is needed or sent.
+         *                Unless a rate limiter is set, requests to the server are not limited: the server limits
+         *                its requests to the API.
+         * @return this builder
+         */
+        public Builder sidecar(URI sidecar) {
+            this.sidecar = sidecar;
+            return this;
+        }
+
+        /**
+         * @return the new client
+         */
+        public EntsoeClient build() {
+            return new EntsoeClient(this);
+        }
+
+    }
 
 }
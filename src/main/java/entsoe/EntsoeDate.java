@@ -1,48 +1,63 @@
 package entsoe;
 
-import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.Month;
+import java.time.Year;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoField;
-
-import static entsoe.Utils.padIntegerWithZeros;
+import java.time.zone.ZoneRules;
+import java.util.Objects;
 
 /**
  * Helper record to handle the special date format used in the ENTSO-E API.
  * The record is comparable/sortable. It supports equals() and can thus be used without restriction as a key attribute in all Java Collection classes.
- * @param utcDate the utc date
+ * <p>
+ * A date is stored as minutes since the epoch and the zone of the date it was created from.
+ * Dates are ordered by time; equals() also compares the zone.
+ * @param epochMinute the minutes since 1970-01-01T00:00Z
+ * @param zone the zone the date is represented in, usually UTC
  */
-public record EntsoeDate(ZonedDateTime utcDate) implements Comparable<EntsoeDate> {
+public record EntsoeDate(long epochMinute, ZoneId zone) implements Comparable<EntsoeDate> {
 
     /**
      * The default ZoneId
      */
     public static final ZoneId UTC_ZONE = ZoneId.of("UTC");
 
+    private static final DateTimeFormatter PRETTY_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Creates a new object.
+     * @param epochMinute the minutes since 1970-01-01T00:00Z
+     * @param zone the zone the date is represented in
+     */
+    public EntsoeDate {
+        Objects.requireNonNull(zone, "zone");
+    }
+
     /**
      * Creates a new object based on the provided utc time.
      * @param utcDate the utc time
      */
     public EntsoeDate(ZonedDateTime utcDate) {
-        this.utcDate = utcDate.withSecond(0).withNano(0);
+        this(Math.floorDiv(utcDate.toEpochSecond(), 60), utcDate.getZone());
     }
 
     /**
      * Constrict an new object based on an existing object and a relative offset (position).
      * @param entsoeDate The base date
      * @param position the relative position to the date compared
-     * @param entsoeResolution the resolution to use. {@link EntsoeResolution#PT60M} supports only full hours, {@link EntsoeResolution#PT15M} supports 15-minute intervals
+     * @param entsoeResolution the resolution of the position, e.g. {@link EntsoeResolution#PT15M} for 15-minute intervals
      * @return the new date
      */
     public static EntsoeDate fromENTSOEDate(EntsoeDate entsoeDate, int position, EntsoeResolution entsoeResolution) {
-        int plusHours = position;
-        int plusMinutes = 0;
-        if (entsoeResolution==EntsoeResolution.PT15M) {
-            plusHours = position / 4;
-            plusMinutes = (position % 4) * 15;
-        }
-        return new EntsoeDate(entsoeDate.utcDate.plusHours(plusHours).plusMinutes(plusMinutes));
+        return new EntsoeDate(entsoeDate.epochMinute + (long) position * entsoeResolution.getMinutes(), entsoeDate.zone);
     }
 
     /**
@@ -51,20 +66,48 @@ public record EntsoeDate(ZonedDateTime utcDate) implements Comparable<EntsoeDate
      * @return new object
      */
     public static EntsoeDate fromENTSOEDateString(String entsoeFormat) {
-        int year = Integer.parseInt(entsoeFormat.substring(0, 4));
-        int month = Integer.parseInt(entsoeFormat.substring(4, 6));
-        int day = Integer.parseInt(entsoeFormat.substring(6, 8));
+        int year = parseDigits(entsoeFormat, 0, 4);
+        int month = parseDigits(entsoeFormat, 4, 6);
+        int day = parseDigits(entsoeFormat, 6, 8);
         int hour;
         int minute;
         if (entsoeFormat.length() > 8) {
-            hour = Integer.parseInt(entsoeFormat.substring(8, 10));
-            minute = Integer.parseInt(entsoeFormat.substring(10, 12));
+            hour = parseDigits(entsoeFormat, 8, 10);
+            minute = parseDigits(entsoeFormat, 10, 12);
         } else {
             hour = 0;
             minute = 0;
         }
-        ZonedDateTime utc = ZonedDateTime.of(year, month, day, hour, minute, 0, 0, UTC_ZONE);
-        return new EntsoeDate(utc);
+        ChronoField.MONTH_OF_YEAR.checkValidValue(month);
+        ChronoField.DAY_OF_MONTH.checkValidValue(day);
+        ChronoField.HOUR_OF_DAY.checkValidValue(hour);
+        ChronoField.MINUTE_OF_HOUR.checkValidValue(minute);
+        if (day > Month.of(month).length(Year.isLeap(year))) {
+            throw new DateTimeException("Invalid date: " + entsoeFormat);
+        }
+        return new EntsoeDate(toEpochDay(year, month, day) * MINUTES_PER_DAY + hour * 60 + minute, UTC_ZONE);
+    }
+
+    private static int parseDigits(String s, int begin, int end) {
+        if (s.length() < end) {
+            throw new StringIndexOutOfBoundsException("Invalid ENTSO-E date: " + s);
+        }
+        int res = 0;
+        for (int i = begin; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid ENTSO-E date: " + s);
+            }
+            res = res * 10 + (c - '0');
+        }
+        return res;
+    }
+
+    /**
+     * @return the date in its zone, usually UTC
+     */
+    public ZonedDateTime utcDate() {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochMinute * 60), zone);
     }
 
     /**
@@ -72,12 +115,9 @@ public record EntsoeDate(ZonedDateTime utcDate) implements Comparable<EntsoeDate
      * @return Date-only ENTSO-E String representation of the utc date object
      */
     public String getEntsoeDate() {
-        StringBuilder res = new StringBuilder();
-        int year = utcDate.get(ChronoField.YEAR);
-        int month = utcDate.get(ChronoField.MONTH_OF_YEAR);
-        int day = utcDate.get(ChronoField.DAY_OF_MONTH);
-        res.append(year).append(padIntegerWithZeros(month, 2)).append(padIntegerWithZeros(day, 2));
-        return res.toString();
+        char[] buffer = new char[8];
+        format(buffer, false);
+        return new String(buffer);
     }
 
     /**
@@ -85,21 +125,69 @@ public record EntsoeDate(ZonedDateTime utcDate) implements Comparable<EntsoeDate
      * @return Date-time ENTSO-E String representation of the utc date object
      */
     public String getEntsoeDateTime() {
-        StringBuilder res = new StringBuilder(getEntsoeDate());
-        int hour = utcDate.get(ChronoField.HOUR_OF_DAY);
-        int minute = utcDate.get(ChronoField.MINUTE_OF_HOUR);
-        res.append(padIntegerWithZeros(hour, 2)).append(padIntegerWithZeros(minute, 2));
-        return res.toString();
+        char[] buffer = new char[12];
+        format(buffer, true);
+        return new String(buffer);
+    }
+
+    /**
+     * Writes yyyyMMdd[HHmm] into the buffer. Years outside 0..9999 are not supported by the ENTSO-E format.
+     */
+    private void format(char[] buffer, boolean withTime) {
+        long localMinute = epochMinute + getOffsetMinutes();
+        long epochDay = Math.floorDiv(localMinute, MINUTES_PER_DAY);
+        int minuteOfDay = Math.floorMod(localMinute, MINUTES_PER_DAY);
+        // civil from days, see http://howardhinnant.github.io/date_algorithms.html
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        putDigits(buffer, 0, year, 4);
+        putDigits(buffer, 4, month, 2);
+        putDigits(buffer, 6, day, 2);
+        if (withTime) {
+            putDigits(buffer, 8, minuteOfDay / 60, 2);
+            putDigits(buffer, 10, minuteOfDay % 60, 2);
+        }
+    }
+
+    private static void putDigits(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static long toEpochDay(int year, int month, int day) {
+        // days from civil, see http://howardhinnant.github.io/date_algorithms.html
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private long getOffsetMinutes() {
+        if (zone instanceof ZoneOffset zoneOffset) {
+            return zoneOffset.getTotalSeconds() / 60;
+        }
+        ZoneRules rules = zone.getRules();
+        Instant instant = rules.isFixedOffset() ? Instant.EPOCH : Instant.ofEpochSecond(epochMinute * 60);
+        return rules.getOffset(instant).getTotalSeconds() / 60;
     }
 
     public String toPrettyLocalString() {
-        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        return utcDate.withZoneSameInstant(ZoneId.systemDefault()).format(dateTimeFormatter);
+        return utcDate().withZoneSameInstant(ZoneId.systemDefault()).format(PRETTY_FORMATTER);
     }
 
     public String toPrettyUTCString() {
-        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        return utcDate.format(dateTimeFormatter);
+        return utcDate().format(PRETTY_FORMATTER);
     }
 
     @Override
@@ -109,7 +197,7 @@ public record EntsoeDate(ZonedDateTime utcDate) implements Comparable<EntsoeDate
 
     @Override
     public int compareTo(EntsoeDate o) {
-        return this.utcDate.withFixedOffsetZone().compareTo(o.utcDate.withFixedOffsetZone());
+        return Long.compare(epochMinute, o.epochMinute);
     }
 
 }
@@ -11,4 +11,18 @@ public interface EntsoeDefines {
      */
     String ENTSOE_SECURITY_TOKEN = "ENTSOE_SECURITY_TOKEN";
 
+    /**
+     * The String value of the ENTSOE_XML_PARSER configuration
+     * when specified as Java Property or as ENV variable.
+     * Set to DOM to use the DOM based parser instead of the default streaming parser.
+     */
+    String ENTSOE_XML_PARSER = "ENTSOE_XML_PARSER";
+
+    /**
+     * The String value of the ENTSOE_RATE_LIMIT_FILE configuration
+     * when specified as Java Property or as ENV variable.
+     * Set to a file path to share the default rate limit of all clients on this host that use the same file.
+     */
+    String ENTSOE_RATE_LIMIT_FILE = "ENTSOE_RATE_LIMIT_FILE";
+
 }
@@ -0,0 +1,13 @@
+package entsoe;
+
+/**
+ * ENTSO-E document types that contain prices in a Publication_MarketDocument.
+ */
+public enum EntsoeDocumentType {
+
+    /**
+     * Price document. Contains the day ahead prices.
+     */
+    A44
+
+}
@@ -0,0 +1,25 @@
+package entsoe;
+
+/**
+ * Base class of the exceptions thrown when the ENTSO-E API cannot deliver the requested data.
+ */
+public class EntsoeException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message the detail message
+     */
+    public EntsoeException(String message) {
+        super(message);
+    }
+
+    /**
+     * @param message the detail message
+     * @param cause the cause
+     */
+    public EntsoeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
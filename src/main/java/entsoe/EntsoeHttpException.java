@@ -0,0 +1,41 @@
+package entsoe;
+
+import java.time.Duration;
+
+/**
+ * The API answered with an HTTP error status.
+ */
+public class EntsoeHttpException extends EntsoeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    private final Duration retryAfter;
+
+    /**
+     * @param statusCode the HTTP status code
+     * @param retryAfter the value of the Retry-After header or null
+     * @param message the detail message
+     */
+    public EntsoeHttpException(int statusCode, Duration retryAfter, String message) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return the HTTP status code
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return how long the API asked to wait before the next request or null if it did not say
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+}
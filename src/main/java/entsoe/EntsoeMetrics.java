@@ -0,0 +1,69 @@
+package entsoe;
+
+/**
+ * Receives measurements of an {@link EntsoeClient}, see {@link EntsoeClient.Builder#metrics(EntsoeMetrics)}.
+ * All methods are called on the thread that did the work, so implementations must be thread safe and must not block.
+ * The default methods do nothing.
+ * <p>
+ * Implementations: {@link SimpleEntsoeMetrics} keeps counters and histograms in memory,
+ * {@link JfrEntsoeMetrics} emits Java Flight Recorder events.
+ */
+public interface EntsoeMetrics {
+
+    /**
+     * Ignores all measurements. Used if no metrics are configured.
+     */
+    EntsoeMetrics NOOP = new EntsoeMetrics() {
+    };
+
+    /**
+     * A response was received.
+     * @param entsoeRequest the request
+     * @param statusCode the HTTP status code
+     * @param nanos the time from sending the request until the response headers were received
+     */
+    default void onRequest(EntsoeRequest entsoeRequest, int statusCode, long nanos) {
+    }
+
+    /**
+     * A request failed without response, e.g. because of a timeout.
+     * @param entsoeRequest the request
+     * @param cause the reason
+     * @param nanos the time from sending the request until the failure
+     */
+    default void onRequestFailed(EntsoeRequest entsoeRequest, Throwable cause, long nanos) {
+    }
+
+    /**
+     * The body of a response was received completely.
+     * @param entsoeRequest the request
+     * @param bytes the number of bytes of the body as transferred
+     */
+    default void onBytesReceived(EntsoeRequest entsoeRequest, long bytes) {
+    }
+
+    /**
+     * A permit of the {@link ApiRateLimiter} was granted.
+     * @param nanos the time waited for the permit
+     * @param queueDepth the number of callers that were already waiting for a permit
+     */
+    default void onRateLimiterWait(long nanos, int queueDepth) {
+    }
+
+    /**
+     * A document was parsed.
+     * @param resolution the requested resolution
+     * @param points the number of prices found
+     * @param nanos the parse time, including reading the body
+     */
+    default void onParse(EntsoeResolution resolution, int points, long nanos) {
+    }
+
+    /**
+     * The {@link TimeSeriesCache} was asked for a day.
+     * @param hit true if the day was cached. A call that waits for the request of a concurrent call for the same day is a miss.
+     */
+    default void onCacheAccess(boolean hit) {
+    }
+
+}
@@ -0,0 +1,20 @@
+package entsoe;
+
+/**
+ * The API has no data for the request, e.g. because the prices of the day are not published yet
+ * or the day is before the start of the data of the bidding zone.
+ * Methods that return a time series return an empty time series instead of throwing this exception.
+ */
+public class EntsoeNoDataException extends EntsoeAcknowledgementException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param reasonCode the Reason/code of the document
+     * @param reasonText the Reason/text of the document
+     */
+    public EntsoeNoDataException(String reasonCode, String reasonText) {
+        super(reasonCode, reasonText);
+    }
+
+}
@@ -0,0 +1,69 @@
+package entsoe;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A range of days as requested from the ENTSO-E API.
+ * Both days are inclusive. Only the utc date of start and end is relevant, the time of day is ignored.
+ * @param start the first day
+ * @param end the last day
+ */
+public record EntsoePeriod(EntsoeDate start, EntsoeDate end) {
+
+    /**
+     * Creates a new period.
+     * @param start the first day
+     * @param end the last day - must not be before start
+     */
+    public EntsoePeriod {
+        if (end.utcDate().toLocalDate().isBefore(start.utcDate().toLocalDate())) {
+            throw new IllegalArgumentException("end must not be before start: " + start + " > " + end);
+        }
+    }
+
+    /**
+     * Creates a period that covers a single day.
+     * @param entsoeDate the day
+     * @return the new period
+     */
+    public static EntsoePeriod ofDay(EntsoeDate entsoeDate) {
+        return new EntsoePeriod(entsoeDate, entsoeDate);
+    }
+
+    /**
+     * @return the value of the periodStart parameter, 00:00 of the first day
+     */
+    public EntsoeDate periodStart() {
+        return new EntsoeDate(start.utcDate().withHour(0).withMinute(0));
+    }
+
+    /**
+     * @return the value of the periodEnd parameter, 23:00 of the last day
+     */
+    public EntsoeDate periodEnd() {
+        return new EntsoeDate(end.utcDate().withHour(23).withMinute(0));
+    }
+
+    /**
+     * Split the period into consecutive periods that are at most one year long,
+     * the longest period the ENTSO-E API accepts for day ahead prices.
+     * @return the periods in chronological order
+     */
+    public List<EntsoePeriod> splitByYear() {
+        List<EntsoePeriod> res = new ArrayList<>();
+        ZonedDateTime chunkStart = periodStart().utcDate();
+        ZonedDateTime last = periodEnd().utcDate().withHour(0);
+        while (!chunkStart.isAfter(last)) {
+            ZonedDateTime chunkEnd = chunkStart.plusYears(1).minusDays(1);
+            if (chunkEnd.isAfter(last)) {
+                chunkEnd = last;
+            }
+            res.add(new EntsoePeriod(new EntsoeDate(chunkStart), new EntsoeDate(chunkEnd)));
+            chunkStart = chunkEnd.plusDays(1);
+        }
+        return res;
+    }
+
+}
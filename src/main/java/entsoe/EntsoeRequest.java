@@ -0,0 +1,44 @@
+package entsoe;
+
+import java.util.List;
+
+/**
+ * The parameters of a single request to the ENTSO-E API.
+ * @param biddingZone the bidding zone, used as in_Domain and out_Domain
+ * @param documentType the document type
+ * @param period the days to request
+ */
+public record EntsoeRequest(BiddingZone biddingZone, EntsoeDocumentType documentType, EntsoePeriod period) {
+
+    /**
+     * Creates a request for the day ahead prices of a single day.
+     * @param biddingZone the bidding zone
+     * @param entsoeDate the day
+     * @return the new request
+     */
+    public static EntsoeRequest of(BiddingZone biddingZone, EntsoeDate entsoeDate) {
+        return new EntsoeRequest(biddingZone, EntsoeDocumentType.A44, EntsoePeriod.ofDay(entsoeDate));
+    }
+
+    /**
+     * Creates a request for the day ahead prices of a range of days.
+     * @param biddingZone the bidding zone
+     * @param from the first day
+     * @param to the last day
+     * @return the new request
+     */
+    public static EntsoeRequest of(BiddingZone biddingZone, EntsoeDate from, EntsoeDate to) {
+        return new EntsoeRequest(biddingZone, EntsoeDocumentType.A44, new EntsoePeriod(from, to));
+    }
+
+    /**
+     * Split the request into requests that the API accepts. See {@link EntsoePeriod#splitByYear()}.
+     * @return the requests in chronological order
+     */
+    public List<EntsoeRequest> split() {
+        return period.splitByYear().stream()
+                .map(p -> new EntsoeRequest(biddingZone, documentType, p))
+                .toList();
+    }
+
+}
@@ -9,11 +9,42 @@ public enum EntsoeResolution {
      * The 15-minute resolution. Returns data set in 15-minute resolution.
      * Note: This is usually not useful for dynamic power plans.
      */
-    PT15M,
+    PT15M(15),
+
+    /**
+     * The 30-minute resolution. Returns data set in 30-minute resolution.
+     */
+    PT30M(30),
 
     /**
      * The 60-minute resolution. Returns data set in 60-minute resolution.
      */
-    PT60M
+    PT60M(60);
+
+    private final int minutes;
+
+    EntsoeResolution(int minutes) {
+        this.minutes = minutes;
+    }
+
+    /**
+     * @return the length of a time slot in minutes
+     */
+    public int getMinutes() {
+        return minutes;
+    }
+
+    /**
+     * @param name the resolution as written in a document, e.g. PT15M
+     * @return the resolution or null if it is not supported
+     */
+    public static EntsoeResolution fromName(String name) {
+        for (EntsoeResolution resolution : values()) {
+            if (resolution.name().equals(name)) {
+                return resolution;
+            }
+        }
+        return null;
+    }
 
 }
@@ -0,0 +1,24 @@
+package entsoe;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends the requests of an {@link EntsoeClient}.
+ * The default is {@link HttpClientTransport}. {@link RecordingTransport} saves the responses of another transport,
+ * {@link ReplayTransport} serves saved responses without network.
+ */
+public interface EntsoeTransport {
+
+    /**
+     * Send a request.
+     * @param entsoeRequest the parameters of the request
+     * @param httpRequest the HTTP request of the parameters
+     * @param bodyHandler creates the subscriber of the body. The body must be passed as sent by the server, the handler decodes it.
+     * @param <T> the type of the body
+     * @return a future of the response. Completes exceptionally with an {@link java.io.IOException} if no response was received.
+     */
+    <T> CompletableFuture<HttpResponse<T>> send(EntsoeRequest entsoeRequest, HttpRequest httpRequest, HttpResponse.BodyHandler<T> bodyHandler);
+
+}
@@ -0,0 +1,55 @@
+package entsoe;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * File locks that also work between threads of one process.
+ * <p>
+ * A {@link FileLock} is held by the whole process, so a second lock on the same region from another channel
+ * of the same process fails with {@link java.nio.channels.OverlappingFileLockException}. Callers of this class
+ * are serialized per file in the process first and take the file lock afterwards, which serializes them against
+ * other processes.
+ */
+final class FileLocks {
+
+    private static final Map<Path, Object> MONITORS = new ConcurrentHashMap<>();
+
+    /**
+     * An action that runs while the lock is held.
+     */
+    interface LockedAction<T> {
+
+        T run() throws IOException;
+
+    }
+
+    private FileLocks() {
+    }
+
+    /**
+     * Run an action while holding an exclusive lock on a region of a file.
+     * @param channel an open channel of the file
+     * @param file the real path of the file, see {@link Path#toRealPath}
+     * @param position the start of the locked region
+     * @param size the size of the locked region
+     * @param action the action
+     * @return the result of the action
+     * @throws IOException if the lock cannot be taken or the action fails
+     */
+    static <T> T locked(FileChannel channel, Path file, long position, long size, LockedAction<T> action) throws IOException {
+        synchronized (MONITORS.computeIfAbsent(file, f -> new Object())) {
+            FileLock lock = channel.lock(position, size, false);
+            try {
+                return action.run();
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+}
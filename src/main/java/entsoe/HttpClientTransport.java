@@ -0,0 +1,27 @@
+package entsoe;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends requests with a JDK {@link HttpClient}.
+ */
+public class HttpClientTransport implements EntsoeTransport {
+
+    private final HttpClient httpClient;
+
+    /**
+     * @param httpClient the client that sends the requests
+     */
+    public HttpClientTransport(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> send(EntsoeRequest entsoeRequest, HttpRequest httpRequest, HttpResponse.BodyHandler<T> bodyHandler) {
+        return httpClient.sendAsync(httpRequest, bodyHandler);
+    }
+
+}
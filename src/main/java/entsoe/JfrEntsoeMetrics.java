@@ -0,0 +1,150 @@
+package entsoe;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * {@link EntsoeMetrics} that emits Java Flight Recorder events in the category "ENTSO-E".
+ * Events are only created while a recording with the event enabled is running.
+ * <pre>
+ * java -XX:StartFlightRecording:filename=entsoe.jfr ...
+ * jfr print --events entsoe.HttpRequest entsoe.jfr
+ * </pre>
+ */
+public class JfrEntsoeMetrics implements EntsoeMetrics {
+
+    @Name("entsoe.HttpRequest")
+    @Label("ENTSO-E HTTP Request")
+    @Category("ENTSO-E")
+    @StackTrace(false)
+    static class HttpRequestEvent extends Event {
+        @Label("Bidding Zone")
+        String biddingZone;
+        @Label("Period")
+        String period;
+        @Label("Status Code")
+        int statusCode;
+        @Label("Error")
+        String error;
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+    }
+
+    @Name("entsoe.BytesReceived")
+    @Label("ENTSO-E Bytes Received")
+    @Category("ENTSO-E")
+    @StackTrace(false)
+    static class BytesReceivedEvent extends Event {
+        @Label("Bidding Zone")
+        String biddingZone;
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("entsoe.RateLimiterWait")
+    @Label("ENTSO-E Rate Limiter Wait")
+    @Category("ENTSO-E")
+    @StackTrace(false)
+    static class RateLimiterWaitEvent extends Event {
+        @Label("Wait Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long waitTime;
+        @Label("Queue Depth")
+        int queueDepth;
+    }
+
+    @Name("entsoe.Parse")
+    @Label("ENTSO-E Parse")
+    @Category("ENTSO-E")
+    @StackTrace(false)
+    static class ParseEvent extends Event {
+        @Label("Resolution")
+        String resolution;
+        @Label("Points")
+        int points;
+        @Label("Parse Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long parseTime;
+    }
+
+    @Name("entsoe.CacheAccess")
+    @Label("ENTSO-E Cache Access")
+    @Category("ENTSO-E")
+    @StackTrace(false)
+    static class CacheAccessEvent extends Event {
+        @Label("Hit")
+        boolean hit;
+    }
+
+    @Override
+    public void onRequest(EntsoeRequest entsoeRequest, int statusCode, long nanos) {
+        HttpRequestEvent event = new HttpRequestEvent();
+        if (event.isEnabled()) {
+            event.biddingZone = entsoeRequest.biddingZone().name();
+            event.period = entsoeRequest.period().periodStart() + "-" + entsoeRequest.period().periodEnd();
+            event.statusCode = statusCode;
+            event.latency = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onRequestFailed(EntsoeRequest entsoeRequest, Throwable cause, long nanos) {
+        HttpRequestEvent event = new HttpRequestEvent();
+        if (event.isEnabled()) {
+            event.biddingZone = entsoeRequest.biddingZone().name();
+            event.period = entsoeRequest.period().periodStart() + "-" + entsoeRequest.period().periodEnd();
+            event.error = String.valueOf(cause);
+            event.latency = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onBytesReceived(EntsoeRequest entsoeRequest, long bytes) {
+        BytesReceivedEvent event = new BytesReceivedEvent();
+        if (event.isEnabled()) {
+            event.biddingZone = entsoeRequest.biddingZone().name();
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onRateLimiterWait(long nanos, int queueDepth) {
+        RateLimiterWaitEvent event = new RateLimiterWaitEvent();
+        if (event.isEnabled()) {
+            event.waitTime = nanos;
+            event.queueDepth = queueDepth;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onParse(EntsoeResolution resolution, int points, long nanos) {
+        ParseEvent event = new ParseEvent();
+        if (event.isEnabled()) {
+            event.resolution = resolution.name();
+            event.points = points;
+            event.parseTime = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onCacheAccess(boolean hit) {
+        CacheAccessEvent event = new CacheAccessEvent();
+        if (event.isEnabled()) {
+            event.hit = hit;
+            event.commit();
+        }
+    }
+
+}
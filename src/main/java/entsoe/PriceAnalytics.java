@@ -0,0 +1,288 @@
+package entsoe;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Queries for scheduling loads like EV charging or heat pumps on a {@link PriceSeries}.
+ * <p>
+ * All queries run in a single pass over the slots of the series, or O(n log k) for {@link #cheapestSlots}, and only
+ * allocate their result. Missing slots are never selected. The methods have no state, and a {@link PriceSeries} is
+ * immutable, so any number of threads can query the same series concurrently.
+ * <p>
+ * The optional bounds {@code from} and {@code to} restrict the result to slots that start at or after {@code from}
+ * and end at or before {@code to}. Null means no bound.
+ */
+public final class PriceAnalytics {
+
+    private PriceAnalytics() {
+    }
+
+    /**
+     * Find the contiguous window with the lowest average price.
+     * @param priceSeries the prices
+     * @param duration the length of the window, a multiple of the resolution of the series
+     * @param from the earliest start or null
+     * @param to the latest end or null
+     * @return the earliest of the cheapest windows or null if no window without missing slots fits
+     */
+    public static PriceRange cheapestWindow(PriceSeries priceSeries, Duration duration, EntsoeDate from, EntsoeDate to) {
+        int slots = toSlots(priceSeries, duration);
+        int begin = fromIndex(priceSeries, from);
+        int end = toIndex(priceSeries, to);
+        long sum = 0;
+        int missing = 0;
+        long bestSum = Long.MAX_VALUE;
+        int best = -1;
+        for (int i = begin; i < end; i++) {
+            long price = priceSeries.getPrice(i);
+            if (price == PriceSeries.MISSING) {
+                missing++;
+            } else {
+                sum += price;
+            }
+            int first = i - slots + 1;
+            if (first > begin) {
+                long removed = priceSeries.getPrice(first - 1);
+                if (removed == PriceSeries.MISSING) {
+                    missing--;
+                } else {
+                    sum -= removed;
+                }
+            }
+            if (first >= begin && missing == 0 && sum < bestSum) {
+                bestSum = sum;
+                best = first;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+        return toRange(priceSeries, best, best + slots, PriceSeries.divideHalfUp(bestSum, slots));
+    }
+
+    /**
+     * See {@link #cheapestWindow(PriceSeries, Duration, EntsoeDate, EntsoeDate)}.
+     * @param priceSeries the prices
+     * @param duration the length of the window, a multiple of the resolution of the series
+     * @return the earliest of the cheapest windows or null if no window without missing slots fits
+     */
+    public static PriceRange cheapestWindow(PriceSeries priceSeries, Duration duration) {
+        return cheapestWindow(priceSeries, duration, null, null);
+    }
+
+    /**
+     * Find the k cheapest slots, which need not be contiguous. Of slots with the same price, the earlier ones are taken.
+     * @param priceSeries the prices
+     * @param k the number of slots
+     * @param from the earliest start or null
+     * @param to the latest end or null
+     * @return the selected slots merged into ranges of consecutive slots, in chronological order.
+     * Fewer than k slots are returned if the bounds do not contain enough prices.
+     */
+    public static List<PriceRange> cheapestSlots(PriceSeries priceSeries, int k, EntsoeDate from, EntsoeDate to) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        int begin = fromIndex(priceSeries, from);
+        int end = toIndex(priceSeries, to);
+        // max heap of the indices of the k cheapest slots so far, the most expensive (and latest) on top
+        int[] heap = new int[Math.min(k, Math.max(end - begin, 0))];
+        int size = 0;
+        for (int i = begin; i < end && heap.length > 0; i++) {
+            long price = priceSeries.getPrice(i);
+            if (price == PriceSeries.MISSING) {
+                continue;
+            }
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(priceSeries, heap, size++);
+            } else if (price < priceSeries.getPrice(heap[0])) {
+                heap[0] = i;
+                siftDown(priceSeries, heap, size);
+            }
+        }
+        int[] selected = Arrays.copyOf(heap, size);
+        Arrays.sort(selected);
+        List<PriceRange> res = new ArrayList<>();
+        int i = 0;
+        while (i < selected.length) {
+            int first = selected[i];
+            long sum = priceSeries.getPrice(first);
+            int j = i + 1;
+            while (j < selected.length && selected[j] == selected[j - 1] + 1) {
+                sum += priceSeries.getPrice(selected[j]);
+                j++;
+            }
+            res.add(toRange(priceSeries, first, selected[j - 1] + 1, PriceSeries.divideHalfUp(sum, j - i)));
+            i = j;
+        }
+        return res;
+    }
+
+    /**
+     * See {@link #cheapestSlots(PriceSeries, int, EntsoeDate, EntsoeDate)}.
+     * @param priceSeries the prices
+     * @param k the number of slots
+     * @return the selected slots merged into ranges of consecutive slots, in chronological order
+     */
+    public static List<PriceRange> cheapestSlots(PriceSeries priceSeries, int k) {
+        return cheapestSlots(priceSeries, k, null, null);
+    }
+
+    /**
+     * Find the maximal runs of consecutive slots with a price at or below the threshold.
+     * @param priceSeries the prices
+     * @param threshold the highest price in hundredths of a cent per kWh
+     * @return the runs in chronological order
+     */
+    public static List<PriceRange> runsAtOrBelow(PriceSeries priceSeries, long threshold) {
+        return runs(priceSeries, threshold, true);
+    }
+
+    /**
+     * Find the maximal runs of consecutive slots with a price at or above the threshold.
+     * @param priceSeries the prices
+     * @param threshold the lowest price in hundredths of a cent per kWh
+     * @return the runs in chronological order
+     */
+    public static List<PriceRange> runsAtOrAbove(PriceSeries priceSeries, long threshold) {
+        return runs(priceSeries, threshold, false);
+    }
+
+    /**
+     * The minimum of each window of consecutive slots, computed with a monotonic queue in O(n).
+     * @param priceSeries the prices
+     * @param duration the length of the window, a multiple of the resolution of the series
+     * @return a series whose slot i contains the lowest price of the slots i to i + window - 1 of the input,
+     * {@link PriceSeries#MISSING} if all of them are missing. It is empty if the series is shorter than the window.
+     */
+    public static PriceSeries slidingMinimum(PriceSeries priceSeries, Duration duration) {
+        int slots = toSlots(priceSeries, duration);
+        int n = priceSeries.size();
+        long[] res = new long[Math.max(n - slots + 1, 0)];
+        int[] queue = new int[slots]; // ring buffer of indices with increasing prices
+        int head = 0;
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            long price = priceSeries.getPrice(i);
+            if (count > 0 && queue[head] <= i - slots) {
+                head = (head + 1) % slots;
+                count--;
+            }
+            if (price != PriceSeries.MISSING) {
+                while (count > 0 && priceSeries.getPrice(queue[(head + count - 1) % slots]) >= price) {
+                    count--;
+                }
+                queue[(head + count) % slots] = i;
+                count++;
+            }
+            int first = i - slots + 1;
+            if (first >= 0) {
+                res[first] = count > 0 ? priceSeries.getPrice(queue[head]) : PriceSeries.MISSING;
+            }
+        }
+        return new PriceSeries(priceSeries.getStartEpochMinute(), priceSeries.getResolution(), res);
+    }
+
+    private static List<PriceRange> runs(PriceSeries priceSeries, long threshold, boolean below) {
+        List<PriceRange> res = new ArrayList<>();
+        int first = -1;
+        long sum = 0;
+        int n = priceSeries.size();
+        for (int i = 0; i <= n; i++) {
+            long price = i < n ? priceSeries.getPrice(i) : PriceSeries.MISSING;
+            boolean matches = price != PriceSeries.MISSING && (below ? price <= threshold : price >= threshold);
+            if (matches) {
+                if (first < 0) {
+                    first = i;
+                    sum = 0;
+                }
+                sum += price;
+            } else if (first >= 0) {
+                res.add(toRange(priceSeries, first, i, PriceSeries.divideHalfUp(sum, i - first)));
+                first = -1;
+            }
+        }
+        return res;
+    }
+
+    private static int toSlots(PriceSeries priceSeries, Duration duration) {
+        long minutes = duration.toMinutes();
+        int resolution = priceSeries.getResolution().getMinutes();
+        if (minutes <= 0 || minutes % resolution != 0 || !duration.equals(Duration.ofMinutes(minutes))) {
+            throw new IllegalArgumentException("Duration must be a positive multiple of " + priceSeries.getResolution() + ": " + duration);
+        }
+        return Math.toIntExact(minutes / resolution);
+    }
+
+    private static int fromIndex(PriceSeries priceSeries, EntsoeDate from) {
+        if (from == null) {
+            return 0;
+        }
+        long offset = from.epochMinute() - priceSeries.getStartEpochMinute();
+        long index = -Math.floorDiv(-offset, priceSeries.getResolution().getMinutes()); // round up
+        return (int) Math.min(Math.max(index, 0), priceSeries.size());
+    }
+
+    private static int toIndex(PriceSeries priceSeries, EntsoeDate to) {
+        if (to == null) {
+            return priceSeries.size();
+        }
+        long offset = to.epochMinute() - priceSeries.getStartEpochMinute();
+        long index = Math.floorDiv(offset, priceSeries.getResolution().getMinutes());
+        return (int) Math.min(Math.max(index, 0), priceSeries.size());
+    }
+
+    private static PriceRange toRange(PriceSeries priceSeries, int from, int to, long averagePrice) {
+        return new PriceRange(PriceSeries.toEntsoeDate(priceSeries.getEpochMinute(from)),
+                PriceSeries.toEntsoeDate(priceSeries.getEpochMinute(to)), averagePrice);
+    }
+
+    /**
+     * True if slot a is more expensive than slot b; of equal prices the later slot is more expensive.
+     */
+    private static boolean isAbove(PriceSeries priceSeries, int a, int b) {
+        long priceA = priceSeries.getPrice(a);
+        long priceB = priceSeries.getPrice(b);
+        return priceA > priceB || (priceA == priceB && a > b);
+    }
+
+    private static void siftUp(PriceSeries priceSeries, int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isAbove(priceSeries, heap[index], heap[parent])) {
+                break;
+            }
+            int tmp = heap[index];
+            heap[index] = heap[parent];
+            heap[parent] = tmp;
+            index = parent;
+        }
+    }
+
+    private static void siftDown(PriceSeries priceSeries, int[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int largest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && isAbove(priceSeries, heap[left], heap[largest])) {
+                largest = left;
+            }
+            if (right < size && isAbove(priceSeries, heap[right], heap[largest])) {
+                largest = right;
+            }
+            if (largest == index) {
+                return;
+            }
+            int tmp = heap[index];
+            heap[index] = heap[largest];
+            heap[largest] = tmp;
+            index = largest;
+        }
+    }
+
+}
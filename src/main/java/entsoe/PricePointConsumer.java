@@ -0,0 +1,16 @@
+package entsoe;
+
+/**
+ * Receives prices without creating objects per price.
+ */
+@FunctionalInterface
+public interface PricePointConsumer {
+
+    /**
+     * Accept a single price.
+     * @param epochMinute the start of the time slot in minutes since 1970-01-01T00:00Z
+     * @param price the price in hundredths of a cent per kWh, e.g. 1234 for 12.34 cent/kWh
+     */
+    void accept(long epochMinute, long price);
+
+}
@@ -0,0 +1,265 @@
+package entsoe;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Polls the day ahead prices of today and tomorrow and notifies listeners when the prices of a new day are published.
+ * <p>
+ * Days that are known are not requested again. While a day is missing before its publication time
+ * ({@link TimeSeriesCache#PUBLICATION_TIME} on the day before), the poll interval doubles from the fast interval up to
+ * the max interval, but never passes the publication time. From the publication time on, a missing day is polled
+ * with the fast interval. Once tomorrow is known, the next poll is scheduled at the publication time of the day after.
+ * <p>
+ * Days are UTC days like in {@link EntsoeClient#getTimeSeriesEx(EntsoeDate, EntsoeResolution)}.
+ */
+public class PricePublicationWatcher implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(PricePublicationWatcher.class.getName());
+
+    /**
+     * The default poll interval from the publication time on.
+     */
+    public static final Duration DEFAULT_FAST_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * The default max poll interval before the publication time.
+     */
+    public static final Duration DEFAULT_MAX_INTERVAL = Duration.ofHours(1);
+
+    /**
+     * Receives the prices of newly published days.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called once for each day whose prices became available. Called on the thread of the scheduler.
+         * @param day the UTC day
+         * @param timeSeries the prices of the day
+         */
+        void onPublished(LocalDate day, TreeMap<EntsoeDate, BigDecimal> timeSeries);
+
+    }
+
+    private final BiddingZone biddingZone;
+    private final EntsoeResolution resolution;
+    private final BiFunction<EntsoeRequest, EntsoeResolution, TreeMap<EntsoeDate, BigDecimal>> fetcher;
+    private final Duration fastInterval;
+    private final Duration maxInterval;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownedScheduler;
+    private final Clock clock;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final TreeMap<LocalDate, TreeMap<EntsoeDate, BigDecimal>> days = new TreeMap<>();
+
+    private Duration backoff;
+    private ScheduledFuture<?> scheduled;
+    private boolean closed;
+
+    /**
+     * Create a new watcher with the default intervals and an own scheduler thread.
+     * @param entsoeClient the client used for the requests
+     * @param biddingZone the bidding zone
+     * @param resolution the resolution
+     */
+    public PricePublicationWatcher(EntsoeClient entsoeClient, BiddingZone biddingZone, EntsoeResolution resolution) {
+        this(entsoeClient, biddingZone, resolution, DEFAULT_FAST_INTERVAL, DEFAULT_MAX_INTERVAL, null, Clock.systemUTC());
+    }
+
+    /**
+     * Create a new watcher.
+     * @param entsoeClient the client used for the requests
+     * @param biddingZone the bidding zone
+     * @param resolution the resolution
+     * @param fastInterval the poll interval from the publication time on
+     * @param maxInterval the max poll interval before the publication time
+     * @param scheduler runs the polls. If null, the watcher creates a scheduler thread that is stopped in {@link #close()}.
+     * @param clock the clock used to compute the publication times
+     */
+    public PricePublicationWatcher(EntsoeClient entsoeClient, BiddingZone biddingZone, EntsoeResolution resolution,
+                                   Duration fastInterval, Duration maxInterval, ScheduledExecutorService scheduler, Clock clock) {
+        this(entsoeClient::getTimeSeries, biddingZone, resolution, fastInterval, maxInterval, scheduler, clock);
+    }
+
+    PricePublicationWatcher(BiFunction<EntsoeRequest, EntsoeResolution, TreeMap<EntsoeDate, BigDecimal>> fetcher,
+                            BiddingZone biddingZone, EntsoeResolution resolution,
+                            Duration fastInterval, Duration maxInterval, ScheduledExecutorService scheduler, Clock clock) {
+        if (fastInterval.isNegative() || fastInterval.isZero() || maxInterval.compareTo(fastInterval) < 0) {
+            throw new IllegalArgumentException("fastInterval must be positive and not greater than maxInterval");
+        }
+        this.fetcher = fetcher;
+        this.biddingZone = biddingZone;
+        this.resolution = resolution;
+        this.fastInterval = fastInterval;
+        this.maxInterval = maxInterval;
+        this.clock = clock;
+        this.backoff = fastInterval;
+        if (scheduler == null) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "entsoe-publication-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.ownedScheduler = true;
+        } else {
+            this.scheduler = scheduler;
+            this.ownedScheduler = false;
+        }
+    }
+
+    /**
+     * @param listener called for each newly published day
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener a listener that was added before
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Start polling. The first poll runs immediately.
+     */
+    public synchronized void start() {
+        if (closed) {
+            throw new IllegalStateException("Watcher is closed");
+        }
+        if (scheduled == null) {
+            schedule(Duration.ZERO);
+        }
+    }
+
+    /**
+     * Stop polling. If the scheduler was created by the watcher, it is shut down.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        if (ownedScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * @return the known prices of today and tomorrow
+     */
+    public synchronized TreeMap<EntsoeDate, BigDecimal> getTimeSeries() {
+        TreeMap<EntsoeDate, BigDecimal> res = new TreeMap<>();
+        for (TreeMap<EntsoeDate, BigDecimal> timeSeries : days.values()) {
+            res.putAll(timeSeries);
+        }
+        return res;
+    }
+
+    private synchronized void schedule(Duration delay) {
+        if (!closed) {
+            scheduled = scheduler.schedule(this::run, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void run() {
+        Duration delay;
+        try {
+            delay = poll();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Polling prices failed", e);
+            delay = fastInterval;
+        }
+        LOGGER.fine("Next poll in " + delay);
+        schedule(delay);
+    }
+
+    /**
+     * Request the missing days of today and tomorrow and notify the listeners of new days.
+     * @return the delay until the next poll
+     */
+    Duration poll() {
+        LocalDate today = LocalDate.ofInstant(clock.instant(), EntsoeDate.UTC_ZONE);
+        LocalDate tomorrow = today.plusDays(1);
+        synchronized (this) {
+            days.headMap(today).clear();
+        }
+        for (LocalDate day = today; !day.isAfter(tomorrow); day = day.plusDays(1)) {
+            synchronized (this) {
+                if (days.containsKey(day)) {
+                    continue;
+                }
+            }
+            TreeMap<EntsoeDate, BigDecimal> timeSeries = fetch(day);
+            if (timeSeries != null && !timeSeries.isEmpty()) {
+                synchronized (this) {
+                    days.put(day, timeSeries);
+                    backoff = fastInterval;
+                }
+                publish(day, timeSeries);
+            }
+        }
+        return getDelay(tomorrow);
+    }
+
+    private TreeMap<EntsoeDate, BigDecimal> fetch(LocalDate day) {
+        EntsoeDate entsoeDate = new EntsoeDate(day.atStartOfDay(EntsoeDate.UTC_ZONE));
+        try {
+            return fetcher.apply(new EntsoeRequest(biddingZone, EntsoeDocumentType.A44, EntsoePeriod.ofDay(entsoeDate)), resolution);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Requesting prices of " + day + " failed", e);
+            return null;
+        }
+    }
+
+    private void publish(LocalDate day, TreeMap<EntsoeDate, BigDecimal> timeSeries) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onPublished(day, new TreeMap<>(timeSeries));
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Listener failed", e);
+            }
+        }
+    }
+
+    private synchronized Duration getDelay(LocalDate tomorrow) {
+        Map.Entry<LocalDate, TreeMap<EntsoeDate, BigDecimal>> last = days.lastEntry();
+        Instant now = clock.instant();
+        if (last != null && last.getKey().equals(tomorrow)) {
+            // everything known, wait for the next publication
+            return Duration.between(now, getPublicationTime(tomorrow.plusDays(1)));
+        }
+        LocalDate missing = days.containsKey(tomorrow.minusDays(1)) ? tomorrow : tomorrow.minusDays(1);
+        Duration untilPublication = Duration.between(now, getPublicationTime(missing));
+        if (untilPublication.compareTo(fastInterval) <= 0) {
+            return fastInterval;
+        }
+        Duration delay = backoff.compareTo(untilPublication) < 0 ? backoff : untilPublication;
+        backoff = backoff.multipliedBy(2).compareTo(maxInterval) < 0 ? backoff.multipliedBy(2) : maxInterval;
+        return delay;
+    }
+
+    private static Instant getPublicationTime(LocalDate day) {
+        return ZonedDateTime.of(day.minusDays(1), TimeSeriesCache.PUBLICATION_TIME, TimeSeriesCache.PUBLICATION_ZONE).toInstant();
+    }
+
+}
@@ -0,0 +1,28 @@
+package entsoe;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * A range of consecutive time slots and their average price, as found by {@link PriceAnalytics}.
+ * @param start the start of the first slot
+ * @param end the end of the last slot (exclusive)
+ * @param averagePrice the average price of the slots in hundredths of a cent per kWh, rounded half up
+ */
+public record PriceRange(EntsoeDate start, EntsoeDate end, long averagePrice) {
+
+    /**
+     * @return the length of the range
+     */
+    public Duration getDuration() {
+        return Duration.ofMinutes(end.epochMinute() - start.epochMinute());
+    }
+
+    /**
+     * @return the average price in cent/kWh
+     */
+    public BigDecimal getAveragePrice() {
+        return BigDecimal.valueOf(averagePrice, 2);
+    }
+
+}
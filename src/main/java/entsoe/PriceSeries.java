@@ -0,0 +1,397 @@
+package entsoe;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A series of prices with a fixed resolution, backed by a primitive array.
+ * <p>
+ * Prices are stored in fixed-point as hundredths of a cent per kWh, which is exactly the precision of
+ * the {@link BigDecimal} values of a time series. The slot of a point in time is computed from its
+ * offset to the start, so a lookup by time is O(1). Slots without a price contain {@link #MISSING}.
+ * Instances are immutable.
+ */
+public final class PriceSeries {
+
+    /**
+     * The value of a slot without price.
+     */
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private final long startEpochMinute;
+    private final EntsoeResolution resolution;
+    private final long[] prices;
+
+    /**
+     * Creates a new series.
+     * @param startEpochMinute the start of the first time slot in minutes since 1970-01-01T00:00Z
+     * @param resolution the length of a time slot
+     * @param prices the prices in hundredths of a cent per kWh. The array is copied.
+     */
+    public PriceSeries(long startEpochMinute, EntsoeResolution resolution, long[] prices) {
+        this(prices.clone(), startEpochMinute, resolution);
+    }
+
+    private PriceSeries(long[] prices, long startEpochMinute, EntsoeResolution resolution) {
+        this.startEpochMinute = startEpochMinute;
+        this.resolution = resolution;
+        this.prices = prices;
+    }
+
+    /**
+     * Convert a time series.
+     * @param timeSeries the time series
+     * @param resolution the resolution of the time series
+     * @return the new series
+     */
+    public static PriceSeries of(TreeMap<EntsoeDate, BigDecimal> timeSeries, EntsoeResolution resolution) {
+        Builder builder = new Builder(resolution);
+        for (Map.Entry<EntsoeDate, BigDecimal> entry : timeSeries.entrySet()) {
+            builder.accept(entry.getKey().epochMinute(), entry.getValue().movePointRight(2).longValueExact());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Convert to a time series. Missing slots are omitted.
+     * @return a new time series
+     */
+    public TreeMap<EntsoeDate, BigDecimal> toTimeSeries() {
+        TreeMap<EntsoeDate, BigDecimal> res = new TreeMap<>();
+        forEach((epochMinute, price) -> res.put(toEntsoeDate(epochMinute), BigDecimal.valueOf(price, 2)));
+        return res;
+    }
+
+    /**
+     * Pass all prices that are not missing to the consumer in chronological order.
+     * @param consumer the consumer
+     */
+    public void forEach(PricePointConsumer consumer) {
+        int minutes = resolution.getMinutes();
+        for (int i = 0; i < prices.length; i++) {
+            if (prices[i] != MISSING) {
+                consumer.accept(startEpochMinute + (long) i * minutes, prices[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the number of slots, including missing slots
+     */
+    public int size() {
+        return prices.length;
+    }
+
+    /**
+     * @return the start of the first slot in minutes since 1970-01-01T00:00Z
+     */
+    public long getStartEpochMinute() {
+        return startEpochMinute;
+    }
+
+    /**
+     * @return the end of the last slot (exclusive) in minutes since 1970-01-01T00:00Z
+     */
+    public long getEndEpochMinute() {
+        return startEpochMinute + (long) prices.length * resolution.getMinutes();
+    }
+
+    /**
+     * @return the length of a slot
+     */
+    public EntsoeResolution getResolution() {
+        return resolution;
+    }
+
+    /**
+     * @param epochMinute a point in time in minutes since 1970-01-01T00:00Z
+     * @return the index of the slot that contains the point in time or -1 if it is outside of the series
+     */
+    public int indexOf(long epochMinute) {
+        long offset = epochMinute - startEpochMinute;
+        if (offset < 0 || epochMinute >= getEndEpochMinute()) {
+            return -1;
+        }
+        return (int) (offset / resolution.getMinutes());
+    }
+
+    /**
+     * @param entsoeDate a point in time
+     * @return the index of the slot that contains the point in time or -1 if it is outside of the series
+     */
+    public int indexOf(EntsoeDate entsoeDate) {
+        return indexOf(entsoeDate.epochMinute());
+    }
+
+    /**
+     * @param index the index of the slot
+     * @return the price in hundredths of a cent per kWh or {@link #MISSING}
+     */
+    public long getPrice(int index) {
+        return prices[index];
+    }
+
+    /**
+     * @param entsoeDate a point in time
+     * @return the price of the slot that contains the point in time in hundredths of a cent per kWh or {@link #MISSING}
+     */
+    public long getPrice(EntsoeDate entsoeDate) {
+        int index = indexOf(entsoeDate);
+        return index < 0 ? MISSING : prices[index];
+    }
+
+    /**
+     * @param entsoeDate a point in time
+     * @return the price of the slot that contains the point in time in cent/kWh or null if it is missing
+     */
+    public BigDecimal get(EntsoeDate entsoeDate) {
+        long price = getPrice(entsoeDate);
+        return price == MISSING ? null : BigDecimal.valueOf(price, 2);
+    }
+
+    /**
+     * @param index the index of the slot
+     * @return the start of the slot in minutes since 1970-01-01T00:00Z
+     */
+    public long getEpochMinute(int index) {
+        return startEpochMinute + (long) index * resolution.getMinutes();
+    }
+
+    /**
+     * @param index the index of the slot
+     * @return the start of the slot
+     */
+    public EntsoeDate getDate(int index) {
+        return toEntsoeDate(getEpochMinute(index));
+    }
+
+    /**
+     * @return a copy of the prices in hundredths of a cent per kWh
+     */
+    public long[] toArray() {
+        return prices.clone();
+    }
+
+    /**
+     * How the prices of several slots are combined into one slot of a coarser resolution.
+     */
+    public enum Aggregation {
+
+        /**
+         * The arithmetic mean, rounded half up.
+         */
+        MEAN,
+
+        /**
+         * The lowest price.
+         */
+        MIN,
+
+        /**
+         * The highest price.
+         */
+        MAX
+
+    }
+
+    /**
+     * Convert the series to another resolution.
+     * <p>
+     * To a finer resolution, each price is repeated for all slots it covers. To a coarser resolution, the prices that
+     * fall into a slot are aggregated; missing prices are skipped and a slot without prices is missing.
+     * Slots of the result are aligned to multiples of their length since the epoch, i.e. to full hours for PT60M.
+     * @param target the resolution of the result
+     * @param aggregation how prices are combined into a coarser slot
+     * @return the converted series, this series if the resolution is the same
+     * @throws IllegalArgumentException if the resolutions are not multiples of each other
+     */
+    public PriceSeries resample(EntsoeResolution target, Aggregation aggregation) {
+        if (target == resolution) {
+            return this;
+        }
+        int minutes = resolution.getMinutes();
+        int targetMinutes = target.getMinutes();
+        if (targetMinutes < minutes) {
+            if (minutes % targetMinutes != 0) {
+                throw new IllegalArgumentException("Cannot convert " + resolution + " to " + target);
+            }
+            int factor = minutes / targetMinutes;
+            long[] res = new long[prices.length * factor];
+            for (int i = 0, j = 0; i < prices.length; i++) {
+                long price = prices[i];
+                for (int k = 0; k < factor; k++) {
+                    res[j++] = price;
+                }
+            }
+            return new PriceSeries(res, startEpochMinute, target);
+        }
+        if (targetMinutes % minutes != 0) {
+            throw new IllegalArgumentException("Cannot convert " + resolution + " to " + target);
+        }
+        int factor = targetMinutes / minutes;
+        long start = Math.floorDiv(startEpochMinute, targetMinutes) * targetMinutes;
+        int offset = (int) ((startEpochMinute - start) / minutes); // slots before the first slot of this series
+        long[] res = new long[(offset + prices.length + factor - 1) / factor];
+        for (int i = 0; i < res.length; i++) {
+            int from = Math.max(i * factor - offset, 0);
+            int to = Math.min((i + 1) * factor - offset, prices.length);
+            long sum = 0;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            int count = 0;
+            for (int j = from; j < to; j++) {
+                long price = prices[j];
+                if (price != MISSING) {
+                    sum += price;
+                    min = Math.min(min, price);
+                    max = Math.max(max, price);
+                    count++;
+                }
+            }
+            if (count == 0) {
+                res[i] = MISSING;
+            } else {
+                res[i] = switch (aggregation) {
+                    case MEAN -> divideHalfUp(sum, count);
+                    case MIN -> min;
+                    case MAX -> max;
+                };
+            }
+        }
+        return new PriceSeries(res, start, target);
+    }
+
+    /**
+     * Convert the series to a coarser resolution with the mean of the prices weighted by volume,
+     * e.g. the energy consumed in each slot. Slots with a missing price or a volume of zero are skipped.
+     * @param target the resolution of the result, a multiple of the resolution of this series
+     * @param volumes the volume of each slot of this series in any unit
+     * @return the converted series
+     * @throws IllegalArgumentException if the target is not coarser or the number of volumes does not match
+     */
+    public PriceSeries resampleWeighted(EntsoeResolution target, long[] volumes) {
+        int minutes = resolution.getMinutes();
+        int targetMinutes = target.getMinutes();
+        if (targetMinutes < minutes || targetMinutes % minutes != 0) {
+            throw new IllegalArgumentException("Cannot convert " + resolution + " to " + target);
+        }
+        if (volumes.length != prices.length) {
+            throw new IllegalArgumentException("Expected " + prices.length + " volumes, got " + volumes.length);
+        }
+        int factor = targetMinutes / minutes;
+        long start = Math.floorDiv(startEpochMinute, targetMinutes) * targetMinutes;
+        int offset = (int) ((startEpochMinute - start) / minutes);
+        long[] res = new long[(offset + prices.length + factor - 1) / factor];
+        for (int i = 0; i < res.length; i++) {
+            int from = Math.max(i * factor - offset, 0);
+            int to = Math.min((i + 1) * factor - offset, prices.length);
+            long sum = 0;
+            long volume = 0;
+            for (int j = from; j < to; j++) {
+                if (prices[j] != MISSING && volumes[j] != 0) {
+                    sum = Math.addExact(sum, Math.multiplyExact(prices[j], volumes[j]));
+                    volume += volumes[j];
+                }
+            }
+            res[i] = volume == 0 ? MISSING : divideHalfUp(sum, volume);
+        }
+        return new PriceSeries(res, start, target);
+    }
+
+    /**
+     * Divide and round half away from zero like {@link java.math.RoundingMode#HALF_UP}. The divisor must be positive.
+     */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    static EntsoeDate toEntsoeDate(long epochMinute) {
+        return new EntsoeDate(epochMinute, ZoneOffset.UTC);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PriceSeries that)) {
+            return false;
+        }
+        return startEpochMinute == that.startEpochMinute && resolution == that.resolution && Arrays.equals(prices, that.prices);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Long.hashCode(startEpochMinute) + resolution.hashCode()) + Arrays.hashCode(prices);
+    }
+
+    @Override
+    public String toString() {
+        return "PriceSeries[" + toEntsoeDate(startEpochMinute) + ", " + resolution + ", " + prices.length + " slots]";
+    }
+
+    /**
+     * Collects prices in any order and creates a {@link PriceSeries}.
+     * Prices that are not aligned to the resolution are ignored. If a slot is set twice, the latter price wins.
+     */
+    public static class Builder implements PricePointConsumer {
+
+        private final EntsoeResolution resolution;
+        private long[] epochMinutes = new long[128];
+        private long[] prices = new long[128];
+        private int size;
+
+        /**
+         * @param resolution the resolution of the series
+         */
+        public Builder(EntsoeResolution resolution) {
+            this.resolution = resolution;
+        }
+
+        @Override
+        public void accept(long epochMinute, long price) {
+            if (size == epochMinutes.length) {
+                epochMinutes = Arrays.copyOf(epochMinutes, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+            }
+            epochMinutes[size] = epochMinute;
+            prices[size] = price;
+            size++;
+        }
+
+        /**
+         * @return the new series. It is empty if no price was added.
+         */
+        public PriceSeries build() {
+            if (size == 0) {
+                return new PriceSeries(new long[0], 0, resolution);
+            }
+            int minutes = resolution.getMinutes();
+            long start = Long.MAX_VALUE;
+            long end = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                start = Math.min(start, epochMinutes[i]);
+                end = Math.max(end, epochMinutes[i]);
+            }
+            long[] res = new long[(int) ((end - start) / minutes) + 1];
+            Arrays.fill(res, MISSING);
+            for (int i = 0; i < size; i++) {
+                long offset = epochMinutes[i] - start;
+                if (offset % minutes == 0) {
+                    res[(int) (offset / minutes)] = prices[i];
+                }
+            }
+            return new PriceSeries(res, start, resolution);
+        }
+
+    }
+
+}
@@ -0,0 +1,397 @@
+package entsoe;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves the prices of one {@link EntsoeClient} to many local clients, so a fleet of processes shares the request
+ * quota of one security token.
+ * <p>
+ * The server is built on the HTTP server of the JDK and has two endpoints:
+ * <ul>
+ *     <li>{@code GET /api} takes the parameters of the ENTSO-E API and answers with the document of the API. The
+ *     security token is ignored. Concurrent requests for the same document cause a single upstream request, and
+ *     documents are kept for the cache time. Expired documents are removed once per cache time. Documents of delivery
+ *     days that are over never change, so they are kept without expiry. Clients use it with {@link EntsoeClient.Builder#sidecar}.</li>
+ *     <li>{@code GET /events} is a stream of Server-Sent Events. Each day published for a watched bidding zone is
+ *     sent as event {@code published} with the data {@code {"biddingZone":"DE_LU","resolution":"PT60M","day":"2023-01-02"}}.</li>
+ * </ul>
+ * Errors of the upstream API are passed on with their status code, so the retry policy of the clients applies.
+ * Other failures are answered with 502.
+ */
+public class PriceServer implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(PriceServer.class.getName());
+
+    /**
+     * The default port.
+     */
+    public static final int DEFAULT_PORT = 8090;
+
+    /**
+     * The default time documents are cached.
+     */
+    public static final Duration DEFAULT_CACHE_TIME = Duration.ofMinutes(5);
+
+    private static final Duration KEEP_ALIVE_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration MIN_EVICTION_INTERVAL = Duration.ofSeconds(1);
+
+    /**
+     * @param response the document
+     * @param expiresNanos when the document expires, unless it is final
+     * @param past true if all requested delivery days were over at the request, so the document is final once it is OK
+     */
+    private record CachedResponse(CompletableFuture<HttpResponse<String>> response, long expiresNanos, boolean past) {
+
+        boolean isValid(long now) {
+            return expiresNanos - now > 0 || isFinal();
+        }
+
+        boolean isFinal() {
+            return past && response.isDone() && !response.isCompletedExceptionally() && response.join().statusCode() == 200;
+        }
+
+    }
+
+    private final EntsoeClient entsoeClient;
+    private final InetSocketAddress address;
+    private final Duration cacheTime;
+    private final List<PricePublicationWatcher> watchers = new ArrayList<>();
+    private final Map<EntsoeRequest, CachedResponse> cache = new ConcurrentHashMap<>();
+    private final List<OutputStream> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler; // keep-alive events and cache eviction
+
+    private HttpServer server;
+
+    private PriceServer(Builder builder) {
+        this.entsoeClient = builder.entsoeClient;
+        this.address = builder.address;
+        this.cacheTime = builder.cacheTime;
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "entsoe-price-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "entsoe-price-server-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Map.Entry<BiddingZone, EntsoeResolution> watched : builder.watched.entrySet()) {
+            PricePublicationWatcher watcher = new PricePublicationWatcher(entsoeClient, watched.getKey(), watched.getValue());
+            watcher.addListener((day, timeSeries) -> onPublished(watched.getKey(), watched.getValue(), day));
+            watchers.add(watcher);
+        }
+    }
+
+    /**
+     * @param entsoeClient the client that sends the requests to the ENTSO-E API
+     * @return a new builder
+     */
+    public static Builder builder(EntsoeClient entsoeClient) {
+        return new Builder(entsoeClient);
+    }
+
+    /**
+     * Start serving and watching.
+     * @throws IOException if the address cannot be bound
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server is already started");
+        }
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/api", this::handleApi);
+        server.createContext("/events", this::handleEvents);
+        server.start();
+        scheduler.scheduleAtFixedRate(() -> broadcast(": keep-alive\n\n"),
+                KEEP_ALIVE_INTERVAL.toMillis(), KEEP_ALIVE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        long evictionInterval = Math.max(cacheTime.toMillis(), MIN_EVICTION_INTERVAL.toMillis());
+        scheduler.scheduleAtFixedRate(this::evictExpired, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+        watchers.forEach(PricePublicationWatcher::start);
+        LOGGER.info("Price server listening on " + server.getAddress());
+    }
+
+    /**
+     * @return the bound address, with the actual port if the port was 0
+     */
+    public synchronized InetSocketAddress getAddress() {
+        if (server == null) {
+            throw new IllegalStateException("Server is not started");
+        }
+        return server.getAddress();
+    }
+
+    /**
+     * Stop the server, the watchers and all event streams. The client is not closed.
+     */
+    @Override
+    public synchronized void close() {
+        watchers.forEach(PricePublicationWatcher::close);
+        scheduler.shutdown();
+        for (OutputStream subscriber : subscribers) {
+            closeQuietly(subscriber);
+        }
+        subscribers.clear();
+        if (server != null) {
+            server.stop(0);
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Notify the event streams of a published day and drop cached documents of the bidding zone,
+     * which may still say that there is no data. Final documents are kept.
+     */
+    void onPublished(BiddingZone biddingZone, EntsoeResolution resolution, LocalDate day) {
+        cache.entrySet().removeIf(entry -> entry.getKey().biddingZone() == biddingZone && !entry.getValue().isFinal());
+        broadcast("event: published\ndata: {\"biddingZone\":\"" + biddingZone.name() + "\",\"resolution\":\""
+                + resolution.name() + "\",\"day\":\"" + day + "\"}\n\n");
+    }
+
+    private void broadcast(String event) {
+        byte[] bytes = event.getBytes(StandardCharsets.UTF_8);
+        for (OutputStream subscriber : subscribers) {
+            try {
+                synchronized (subscriber) {
+                    subscriber.write(bytes);
+                    subscriber.flush();
+                }
+            } catch (IOException e) {
+                LOGGER.fine("Event stream closed: " + e);
+                subscribers.remove(subscriber);
+                closeQuietly(subscriber);
+            }
+        }
+    }
+
+    private void handleEvents(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendText(exchange, 405, "Method not allowed");
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=UTF-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        synchronized (out) {
+            subscribers.add(out); // stays open until the server is closed or a write fails
+            out.write(": connected\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+
+    private void handleApi(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendText(exchange, 405, "Method not allowed");
+            return;
+        }
+        EntsoeRequest entsoeRequest;
+        try {
+            entsoeRequest = parseRequest(exchange.getRequestURI().getRawQuery());
+        } catch (RuntimeException e) {
+            sendText(exchange, 400, "Invalid request: " + e.getMessage());
+            return;
+        }
+        HttpResponse<String> response;
+        try {
+            response = getResponse(entsoeRequest).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof EntsoeHttpException httpException) {
+                if (httpException.getRetryAfter() != null) {
+                    exchange.getResponseHeaders().set("Retry-After", Long.toString(httpException.getRetryAfter().toSeconds()));
+                }
+                sendText(exchange, httpException.getStatusCode(), cause.getMessage());
+            } else {
+                sendText(exchange, 502, "Upstream request failed: " + cause.getMessage());
+            }
+            return;
+        }
+        byte[] body = response.body() != null ? response.body().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        exchange.getResponseHeaders().set("Content-Type", response.headers().firstValue("Content-Type").orElse("text/xml; charset=UTF-8"));
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(body.length / 4);
+            try (OutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(body);
+            }
+            body = gzip.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        send(exchange, response.statusCode(), body);
+    }
+
+    /**
+     * Get the document of a request from the cache or the client. Failed requests are not cached.
+     */
+    private CompletableFuture<HttpResponse<String>> getResponse(EntsoeRequest entsoeRequest) {
+        long now = System.nanoTime();
+        CachedResponse cached = cache.compute(entsoeRequest, (key, value) -> value != null && value.isValid(now)
+                ? value : new CachedResponse(entsoeClient.getSpotpriceDataResponseAsync(key), now + cacheTime.toNanos(), isPast(key)));
+        cached.response().whenComplete((response, e) -> {
+            if (e != null) {
+                cache.remove(entsoeRequest, cached);
+            }
+        });
+        return cached.response();
+    }
+
+    /**
+     * @return true if the requested period is over, and with it all of its delivery days
+     */
+    private static boolean isPast(EntsoeRequest entsoeRequest) {
+        return entsoeRequest.period().end().epochMinute() <= System.currentTimeMillis() / 60_000;
+    }
+
+    /**
+     * Remove the expired documents. Documents that are still requested are kept, their callers share them.
+     */
+    void evictExpired() {
+        long now = System.nanoTime();
+        cache.values().removeIf(cached -> !cached.isValid(now) && cached.response().isDone());
+    }
+
+    /**
+     * @return the number of cached documents, including expired ones that are not evicted yet
+     */
+    int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Parse the query of an ENTSO-E request. The document type, in_Domain, periodStart and periodEnd are required.
+     */
+    static EntsoeRequest parseRequest(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int equals = parameter.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(parameter.substring(0, equals), URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        EntsoeDocumentType documentType = EntsoeDocumentType.valueOf(getParameter(parameters, "documentType"));
+        BiddingZone biddingZone = BiddingZone.fromEic(getParameter(parameters, "in_Domain"));
+        EntsoeDate start = EntsoeDate.fromENTSOEDateString(getParameter(parameters, "periodStart"));
+        EntsoeDate end = EntsoeDate.fromENTSOEDateString(getParameter(parameters, "periodEnd"));
+        return new EntsoeRequest(biddingZone, documentType, new EntsoePeriod(start, end));
+    }
+
+    private static String getParameter(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter " + name);
+        }
+        return value;
+    }
+
+    private static void sendText(HttpExchange exchange, int statusCode, String text) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        send(exchange, statusCode, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int statusCode, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(statusCode, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void closeQuietly(OutputStream out) {
+        try {
+            out.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Closing event stream failed", e);
+        }
+    }
+
+    /**
+     * Builder for {@link PriceServer}.
+     */
+    public static class Builder {
+
+        private final EntsoeClient entsoeClient;
+        private InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), DEFAULT_PORT);
+        private Duration cacheTime = DEFAULT_CACHE_TIME;
+        private final Map<BiddingZone, EntsoeResolution> watched = new EnumMap<>(BiddingZone.class);
+
+        private Builder(EntsoeClient entsoeClient) {
+            this.entsoeClient = entsoeClient;
+        }
+
+        /**
+         * @param address the address to listen on. Default is the loopback address and {@link #DEFAULT_PORT}.
+         *                Port 0 picks a free port.
+         * @return this builder
+         */
+        public Builder address(InetSocketAddress address) {
+            this.address = address;
+            return this;
+        }
+
+        /**
+         * @param cacheTime how long documents are served without a new upstream request. Default is {@link #DEFAULT_CACHE_TIME}.
+         *                  Documents of delivery days that are over are kept without expiry.
+         * @return this builder
+         */
+        public Builder cacheTime(Duration cacheTime) {
+            if (cacheTime.isNegative()) {
+                throw new IllegalArgumentException("cacheTime must not be negative");
+            }
+            this.cacheTime = cacheTime;
+            return this;
+        }
+
+        /**
+         * Watch the publication of a bidding zone with a {@link PricePublicationWatcher} and send an event for
+         * each published day.
+         * @param biddingZone the bidding zone
+         * @param resolution the resolution of the watched prices
+         * @return this builder
+         */
+        public Builder watch(BiddingZone biddingZone, EntsoeResolution resolution) {
+            this.watched.put(biddingZone, resolution);
+            return this;
+        }
+
+        /**
+         * @return the new server. It is started with {@link PriceServer#start()}.
+         */
+        public PriceServer build() {
+            return new PriceServer(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,206 @@
+package entsoe;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Aggregated prices of a day, a month or any range of them, as kept by a {@link RollupIndex}.
+ * <p>
+ * Count, sum, minimum and maximum are exact. Quantiles come from a sketch with logarithmic bins: prices below
+ * 1 cent/kWh in magnitude are exact, larger prices have a relative error of at most {@value #RELATIVE_ACCURACY}.
+ * The sketch of a month has at most a few thousand bins however many slots it covers, and statistics are merged
+ * by adding their bins. All prices are in hundredths of a cent per kWh. Instances are immutable.
+ */
+public final class PriceStatistics {
+
+    /**
+     * The max relative error of a quantile.
+     */
+    public static final double RELATIVE_ACCURACY = 0.005;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+    // bins in ascending order of price: 0 is the price 0, i > 0 is a positive and i < 0 a negative price
+    private final int[] bins;
+    private final long[] binCounts;
+
+    private PriceStatistics(long count, long sum, long min, long max, int[] bins, long[] binCounts) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.bins = bins;
+        this.binCounts = binCounts;
+    }
+
+    /**
+     * Aggregate prices.
+     * @param prices the prices, {@link PriceSeries#MISSING} is ignored
+     * @param from the index of the first price
+     * @param to the index after the last price
+     * @return the statistics or null if there are no prices
+     */
+    static PriceStatistics of(long[] prices, int from, int to) {
+        int[] keys = new int[to - from];
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            long price = prices[i];
+            if (price == PriceSeries.MISSING) {
+                continue;
+            }
+            keys[count++] = binOf(price);
+            sum = Math.addExact(sum, price);
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+        }
+        if (count == 0) {
+            return null;
+        }
+        Arrays.sort(keys, 0, count);
+        int[] bins = new int[count];
+        long[] binCounts = new long[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (size > 0 && bins[size - 1] == keys[i]) {
+                binCounts[size - 1]++;
+            } else {
+                bins[size] = keys[i];
+                binCounts[size++] = 1;
+            }
+        }
+        return new PriceStatistics(count, sum, min, max, Arrays.copyOf(bins, size), Arrays.copyOf(binCounts, size));
+    }
+
+    /**
+     * Merge two statistics.
+     * @param a statistics or null
+     * @param b statistics or null
+     * @return the statistics of the prices of both, null if both are null
+     */
+    static PriceStatistics merge(PriceStatistics a, PriceStatistics b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        int[] bins = new int[a.bins.length + b.bins.length];
+        long[] binCounts = new long[bins.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.bins.length || j < b.bins.length) {
+            if (j == b.bins.length || (i < a.bins.length && a.bins[i] < b.bins[j])) {
+                bins[size] = a.bins[i];
+                binCounts[size++] = a.binCounts[i++];
+            } else if (i == a.bins.length || b.bins[j] < a.bins[i]) {
+                bins[size] = b.bins[j];
+                binCounts[size++] = b.binCounts[j++];
+            } else {
+                bins[size] = a.bins[i];
+                binCounts[size++] = a.binCounts[i++] + b.binCounts[j++];
+            }
+        }
+        return new PriceStatistics(a.count + b.count, Math.addExact(a.sum, b.sum), Math.min(a.min, b.min),
+                Math.max(a.max, b.max), Arrays.copyOf(bins, size), Arrays.copyOf(binCounts, size));
+    }
+
+    private static int binOf(long price) {
+        if (price == 0) {
+            return 0;
+        }
+        int bin = (int) Math.ceil(Math.log(Math.abs((double) price)) / LOG_GAMMA) + 1;
+        return price > 0 ? bin : -bin;
+    }
+
+    private static long valueOf(int bin) {
+        if (bin == 0) {
+            return 0;
+        }
+        long value = Math.round(2 * Math.pow(GAMMA, Math.abs(bin) - 1) / (GAMMA + 1));
+        return bin > 0 ? value : -value;
+    }
+
+    /**
+     * @return the number of prices
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the prices
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the lowest price
+     */
+    public long getMin() {
+        return min;
+    }
+
+    /**
+     * @return the highest price
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return the average price, rounded half up
+     */
+    public long getAverage() {
+        return PriceSeries.divideHalfUp(sum, count);
+    }
+
+    /**
+     * @return the average price in cent/kWh
+     */
+    public BigDecimal getAveragePrice() {
+        return BigDecimal.valueOf(getAverage(), 2);
+    }
+
+    /**
+     * Estimate a quantile. The quantile 0 is the minimum and 1 the maximum, both exact.
+     * @param quantile the quantile between 0 and 1, e.g. 0.5 for the median
+     * @return the lowest price of which at least that share of the prices are lower or equal
+     */
+    public long getQuantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("quantile must be between 0 and 1: " + quantile);
+        }
+        if (quantile == 0) {
+            return min;
+        }
+        if (quantile == 1) {
+            return max;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < bins.length; i++) {
+            seen += binCounts[i];
+            if (seen >= rank) {
+                return Math.min(Math.max(valueOf(bins[i]), min), max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceStatistics[count=" + count + ", average=" + getAveragePrice() + ", min=" + BigDecimal.valueOf(min, 2)
+                + ", max=" + BigDecimal.valueOf(max, 2) + "]";
+    }
+
+}
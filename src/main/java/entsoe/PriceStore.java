@@ -0,0 +1,291 @@
+package entsoe;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Persistent store of fetched day ahead prices.
+ * <p>
+ * There is one file per bidding zone, resolution and year. Each file is memory mapped and consists of
+ * <ul>
+ *     <li>a header (magic, version, resolution in minutes, year, epoch minute of the first slot, number of slots),</li>
+ *     <li>a day index with the first slot and the number of slots stored of each delivery day,</li>
+ *     <li>fixed width slots of 8 bytes, one per time slot, that contain the price in hundredths of a cent per kWh.</li>
+ * </ul>
+ * The slot of a price is computed from its epoch minute, so reading a day does not involve any parsing.
+ * Delivery days are market days in {@link TimeSeriesCache#PUBLICATION_ZONE}, the day of the day ahead auction,
+ * for all bidding zones. The slots start one day before the year and end one day after the year, since a market
+ * day starts on the day before in UTC. A day is read only if it is stored completely, with a price for every slot
+ * of its 23, 24 or 25 hours. Writes of parts of a day add to the prices stored already.
+ * <p>
+ * Each {@link #write} forces the files it changed to disk once, after all of its days are written. Several stores,
+ * also in other processes, may write to the same directory: a write holds a {@link FileLock} on the header and day
+ * index of the file. Reads do not lock, so a day that is written at the same time may be read incomplete.
+ */
+public class PriceStore {
+
+    private static final Logger LOGGER = Logger.getLogger(PriceStore.class.getName());
+
+    private static final int MAGIC = 0x454E5453; // ENTS
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int DAYS = 366;
+    private static final int INDEX_ENTRY_SIZE = 8;
+    private static final int SLOT_SIZE = 8;
+    private static final long EMPTY_SLOT = Long.MIN_VALUE;
+
+    /**
+     * A mapped file. The channel stays open for the file locks of the writes.
+     */
+    private record StoreFile(FileChannel channel, Path realPath, MappedByteBuffer buffer) {
+    }
+
+    private final Path directory;
+
+    private final Map<Path, StoreFile> files = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new store.
+     * @param directory the directory of the files. It is created if it does not exist.
+     * @throws IOException if the directory cannot be created
+     */
+    public PriceStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Read the time series of a delivery day.
+     * @param biddingZone the bidding zone
+     * @param resolution the resolution
+     * @param day the market day
+     * @return the time series or null if the day is not stored completely
+     */
+    public TreeMap<EntsoeDate, BigDecimal> read(BiddingZone biddingZone, EntsoeResolution resolution, LocalDate day) {
+        Path path = getPath(biddingZone, resolution, day.getYear());
+        if (!files.containsKey(path) && !Files.exists(path)) {
+            return null;
+        }
+        MappedByteBuffer buffer = getFile(path, resolution, day.getYear()).buffer();
+        synchronized (buffer) {
+            int indexPosition = HEADER_SIZE + (day.getDayOfYear() - 1) * INDEX_ENTRY_SIZE;
+            int firstSlot = buffer.getInt(indexPosition);
+            int slotCount = buffer.getInt(indexPosition + 4);
+            long baseEpochMinute = buffer.getLong(16);
+            int minutes = resolution.getMinutes();
+            int dayFirstSlot = (int) ((getStartEpochMinute(day) - baseEpochMinute) / minutes);
+            int dayEndSlot = (int) ((getStartEpochMinute(day.plusDays(1)) - baseEpochMinute) / minutes);
+            if (slotCount == 0 || firstSlot > dayFirstSlot || firstSlot + slotCount < dayEndSlot) {
+                return null;
+            }
+            int slotsPosition = getSlotsPosition();
+            TreeMap<EntsoeDate, BigDecimal> res = new TreeMap<>();
+            for (int slot = dayFirstSlot; slot < dayEndSlot; slot++) {
+                long price = buffer.getLong(slotsPosition + slot * SLOT_SIZE);
+                if (price == EMPTY_SLOT) {
+                    return null;
+                }
+                long epochMinute = baseEpochMinute + (long) slot * minutes;
+                res.put(new EntsoeDate(epochMinute, ZoneOffset.UTC), BigDecimal.valueOf(price, 2));
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Read the time series of a range of delivery days.
+     * @param biddingZone the bidding zone
+     * @param resolution the resolution
+     * @param from the first market day
+     * @param to the last market day
+     * @return the time series or null if any of the days is not stored completely
+     */
+    public TreeMap<EntsoeDate, BigDecimal> read(BiddingZone biddingZone, EntsoeResolution resolution, LocalDate from, LocalDate to) {
+        TreeMap<EntsoeDate, BigDecimal> res = new TreeMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            TreeMap<EntsoeDate, BigDecimal> timeSeries = read(biddingZone, resolution, day);
+            if (timeSeries == null) {
+                return null;
+            }
+            res.putAll(timeSeries);
+        }
+        return res;
+    }
+
+    /**
+     * Write a time series. The prices are grouped by market day.
+     * Prices must have a scale of 2 or less. Prices that are already stored for the same slots are overwritten.
+     * @param biddingZone the bidding zone
+     * @param resolution the resolution of the time series
+     * @param timeSeries the time series
+     */
+    public void write(BiddingZone biddingZone, EntsoeResolution resolution, TreeMap<EntsoeDate, BigDecimal> timeSeries) {
+        Set<Path> written = new LinkedHashSet<>();
+        LocalDate day = null;
+        TreeMap<EntsoeDate, BigDecimal> dayTimeSeries = new TreeMap<>();
+        for (Map.Entry<EntsoeDate, BigDecimal> entry : timeSeries.entrySet()) {
+            LocalDate entryDay = getMarketDay(entry.getKey());
+            if (day != null && !day.equals(entryDay)) {
+                writeDay(biddingZone, resolution, day, dayTimeSeries, written);
+                dayTimeSeries.clear();
+            }
+            day = entryDay;
+            dayTimeSeries.put(entry.getKey(), entry.getValue());
+        }
+        if (day != null) {
+            writeDay(biddingZone, resolution, day, dayTimeSeries, written);
+        }
+        for (Path path : written) {
+            MappedByteBuffer buffer = files.get(path).buffer();
+            synchronized (buffer) {
+                buffer.force();
+            }
+        }
+    }
+
+    private void writeDay(BiddingZone biddingZone, EntsoeResolution resolution, LocalDate day, TreeMap<EntsoeDate, BigDecimal> timeSeries, Set<Path> written) {
+        Path path = getPath(biddingZone, resolution, day.getYear());
+        StoreFile file = getFile(path, resolution, day.getYear());
+        MappedByteBuffer buffer = file.buffer();
+        synchronized (buffer) {
+            try {
+                FileLocks.locked(file.channel(), file.realPath(), 0, getSlotsPosition(), () -> {
+                    writeDay(buffer, resolution, timeSeries, day);
+                    return null;
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        written.add(path);
+    }
+
+    private static void writeDay(MappedByteBuffer buffer, EntsoeResolution resolution, TreeMap<EntsoeDate, BigDecimal> timeSeries, LocalDate day) {
+        long baseEpochMinute = buffer.getLong(16);
+        int slots = buffer.getInt(24);
+        int slotsPosition = getSlotsPosition();
+        int minutes = resolution.getMinutes();
+        int firstSlot = Integer.MAX_VALUE;
+        int lastSlot = -1;
+        for (Map.Entry<EntsoeDate, BigDecimal> entry : timeSeries.entrySet()) {
+            long offset = getEpochMinute(entry.getKey()) - baseEpochMinute;
+            if (offset < 0 || offset % minutes != 0 || offset / minutes >= slots) {
+                LOGGER.warning("Ignoring price outside of store range: " + entry.getKey());
+                continue;
+            }
+            int slot = (int) (offset / minutes);
+            firstSlot = Math.min(firstSlot, slot);
+            lastSlot = Math.max(lastSlot, slot);
+        }
+        if (lastSlot < 0) {
+            return;
+        }
+        for (Map.Entry<EntsoeDate, BigDecimal> entry : timeSeries.entrySet()) {
+            long offset = getEpochMinute(entry.getKey()) - baseEpochMinute;
+            if (offset >= 0 && offset % minutes == 0 && offset / minutes < slots) {
+                long price = entry.getValue().movePointRight(2).longValueExact();
+                buffer.putLong(slotsPosition + (int) (offset / minutes) * SLOT_SIZE, price);
+            }
+        }
+        int indexPosition = HEADER_SIZE + (day.getDayOfYear() - 1) * INDEX_ENTRY_SIZE;
+        int storedSlotCount = buffer.getInt(indexPosition + 4);
+        if (storedSlotCount != 0) {
+            int storedFirstSlot = buffer.getInt(indexPosition);
+            lastSlot = Math.max(lastSlot, storedFirstSlot + storedSlotCount - 1);
+            firstSlot = Math.min(firstSlot, storedFirstSlot);
+        }
+        buffer.putInt(indexPosition, firstSlot);
+        buffer.putInt(indexPosition + 4, lastSlot - firstSlot + 1);
+    }
+
+    private static long getEpochMinute(EntsoeDate entsoeDate) {
+        return entsoeDate.epochMinute();
+    }
+
+    private static LocalDate getMarketDay(EntsoeDate entsoeDate) {
+        return LocalDate.ofInstant(Instant.ofEpochSecond(entsoeDate.epochMinute() * 60), TimeSeriesCache.PUBLICATION_ZONE);
+    }
+
+    private static long getStartEpochMinute(LocalDate marketDay) {
+        return marketDay.atStartOfDay(TimeSeriesCache.PUBLICATION_ZONE).toEpochSecond() / 60;
+    }
+
+    private static int getSlotsPosition() {
+        return HEADER_SIZE + DAYS * INDEX_ENTRY_SIZE;
+    }
+
+    private Path getPath(BiddingZone biddingZone, EntsoeResolution resolution, int year) {
+        return directory.resolve(biddingZone.name() + "_" + resolution.name() + "_" + year + ".bin");
+    }
+
+    private StoreFile getFile(Path path, EntsoeResolution resolution, int year) {
+        return files.computeIfAbsent(path, p -> map(p, resolution, year));
+    }
+
+    private static StoreFile map(Path path, EntsoeResolution resolution, int year) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Path realPath = path.toRealPath();
+            return new StoreFile(channel, realPath, map(channel, realPath, resolution, year));
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Map a file. A new file gets the header and empty slots, the header of an existing file is checked.
+     */
+    private static MappedByteBuffer map(FileChannel channel, Path path, EntsoeResolution resolution, int year) throws IOException {
+        int slots = (Year.of(year).length() + 2) * 24 * 60 / resolution.getMinutes();
+        long baseEpochMinute = LocalDate.of(year, 1, 1).minusDays(1).toEpochDay() * 24 * 60;
+        int size = getSlotsPosition() + slots * SLOT_SIZE;
+        return FileLocks.locked(channel, path, 0, getSlotsPosition(), () -> {
+            boolean created = channel.size() == 0;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (created) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, resolution.getMinutes());
+                buffer.putInt(12, year);
+                buffer.putLong(16, baseEpochMinute);
+                buffer.putInt(24, slots);
+                ByteBuffer emptySlot = ByteBuffer.allocate(SLOT_SIZE).putLong(0, EMPTY_SLOT);
+                for (int slot = 0; slot < slots; slot++) {
+                    buffer.put(getSlotsPosition() + slot * SLOT_SIZE, emptySlot, 0, SLOT_SIZE);
+                }
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getInt(8) != resolution.getMinutes() || buffer.getInt(12) != year) {
+                throw new IllegalStateException("Invalid price store file: " + path);
+            }
+            return buffer;
+        });
+    }
+
+}
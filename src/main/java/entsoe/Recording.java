@@ -0,0 +1,178 @@
+package entsoe;
+
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * A saved response of the ENTSO-E API.
+ * <p>
+ * There is one file per request, named after the parameters of the request without the security token, e.g.
+ * {@code A44_DE_LU_202301010000_202301012300.http}. The file contains the status code in the first line, then the
+ * headers Content-Type, Content-Encoding and Retry-After as {@code name: value} lines, an empty line and the body as
+ * received, i.e. still compressed if the server compressed it.
+ */
+final class Recording {
+
+    private static final List<String> HEADERS = List.of("Content-Type", "Content-Encoding", "Retry-After");
+
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final byte[] body;
+
+    Recording(int statusCode, HttpHeaders headers, byte[] body) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    byte[] getBody() {
+        return body;
+    }
+
+    static Path getFile(Path directory, EntsoeRequest entsoeRequest) {
+        return directory.resolve(entsoeRequest.documentType().name() + '_' + entsoeRequest.biddingZone().name() + '_'
+                + entsoeRequest.period().periodStart().getEntsoeDateTime() + '_'
+                + entsoeRequest.period().periodEnd().getEntsoeDateTime() + ".http");
+    }
+
+    /**
+     * Write the recording. The file is replaced atomically, so concurrent readers never see a partial file.
+     */
+    void write(Path file) throws IOException {
+        StringBuilder head = new StringBuilder().append(statusCode).append('\n');
+        for (String name : HEADERS) {
+            for (String value : headers.allValues(name)) {
+                head.append(name).append(": ").append(value).append('\n');
+            }
+        }
+        head.append('\n');
+        ByteArrayOutputStream out = new ByteArrayOutputStream(head.length() + body.length);
+        out.write(head.toString().getBytes(StandardCharsets.UTF_8));
+        out.write(body);
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, out.toByteArray());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    static Recording read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        int end = 0;
+        while (end < bytes.length && !(bytes[end] == '\n' && (end + 1 >= bytes.length || bytes[end + 1] == '\n'))) {
+            end++;
+        }
+        String[] lines = new String(bytes, 0, end, StandardCharsets.UTF_8).split("\n");
+        int statusCode;
+        try {
+            statusCode = Integer.parseInt(lines[0].trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid recording " + file + ": " + lines[0], e);
+        }
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                headers.computeIfAbsent(lines[i].substring(0, colon).trim(), name -> new ArrayList<>())
+                        .add(lines[i].substring(colon + 1).trim());
+            }
+        }
+        int bodyStart = Math.min(end + 2, bytes.length);
+        byte[] body = Arrays.copyOfRange(bytes, bodyStart, bytes.length);
+        return new Recording(statusCode, HttpHeaders.of(headers, (name, value) -> true), body);
+    }
+
+    /**
+     * Pass the body to the subscriber of the body handler, as the HttpClient does.
+     */
+    <T> CompletableFuture<HttpResponse<T>> toResponse(HttpRequest httpRequest, HttpResponse.BodyHandler<T> bodyHandler) {
+        HttpResponse.BodySubscriber<T> subscriber = bodyHandler.apply(new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return statusCode;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        });
+        subscriber.onSubscribe(new Flow.Subscription() {
+            private boolean done;
+
+            @Override
+            public synchronized void request(long n) {
+                if (!done && n > 0) {
+                    done = true;
+                    subscriber.onNext(List.of(ByteBuffer.wrap(body)));
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public synchronized void cancel() {
+                done = true;
+            }
+        });
+        return subscriber.getBody().toCompletableFuture().thenApply(responseBody -> new Response<>(httpRequest, statusCode, headers, responseBody));
+    }
+
+    private record Response<T>(HttpRequest request, int statusCode, HttpHeaders headers, T body) implements HttpResponse<T> {
+
+        @Override
+        public Optional<HttpResponse<T>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+
+    }
+
+}
@@ -0,0 +1,154 @@
+package entsoe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends requests with another transport and saves each response in a directory, so it can be served by a
+ * {@link ReplayTransport} later. Responses with a status that the retry policy of the client retries are not saved.
+ * A saved response of the same request is replaced.
+ * <p>
+ * The files are written on an executor, not on the thread that receives the response. {@link #flush()} waits until
+ * the responses received so far are saved.
+ */
+public class RecordingTransport implements EntsoeTransport {
+
+    private static final Logger LOGGER = Logger.getLogger(RecordingTransport.class.getName());
+
+    private final EntsoeTransport delegate;
+    private final Path directory;
+    private final RetryPolicy retryPolicy;
+    private final Executor executor;
+    private final Set<CompletableFuture<Void>> writes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Record with {@link RetryPolicy#DEFAULT} and write on the common pool.
+     * @param delegate the transport that sends the requests
+     * @param directory the directory of the recordings. It is created if it does not exist.
+     * @throws IOException if the directory cannot be created
+     */
+    public RecordingTransport(EntsoeTransport delegate, Path directory) throws IOException {
+        this(delegate, directory, RetryPolicy.DEFAULT, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param delegate the transport that sends the requests
+     * @param directory the directory of the recordings. It is created if it does not exist.
+     * @param retryPolicy the retry policy of the client. Responses it retries are not saved.
+     * @param executor writes the files
+     * @throws IOException if the directory cannot be created
+     */
+    public RecordingTransport(EntsoeTransport delegate, Path directory, RetryPolicy retryPolicy, Executor executor) throws IOException {
+        this.delegate = delegate;
+        this.directory = Files.createDirectories(directory);
+        this.retryPolicy = retryPolicy;
+        this.executor = executor;
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> send(EntsoeRequest entsoeRequest, HttpRequest httpRequest, HttpResponse.BodyHandler<T> bodyHandler) {
+        Path file = Recording.getFile(directory, entsoeRequest);
+        return delegate.send(entsoeRequest, httpRequest, responseInfo -> {
+            HttpResponse.BodySubscriber<T> subscriber = bodyHandler.apply(responseInfo);
+            if (retryPolicy.isRetryable(responseInfo.statusCode())) {
+                return subscriber;
+            }
+            return new RecordingBodySubscriber<>(subscriber,
+                    body -> write(file, new Recording(responseInfo.statusCode(), responseInfo.headers(), body)));
+        });
+    }
+
+    private void write(Path file, Recording recording) {
+        CompletableFuture<Void> write = new CompletableFuture<>();
+        writes.add(write);
+        try {
+            executor.execute(() -> {
+                try {
+                    recording.write(file);
+                    LOGGER.fine(() -> "Recorded " + file);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Failed to record " + file, e);
+                } finally {
+                    writes.remove(write);
+                    write.complete(null);
+                }
+            });
+        } catch (RuntimeException e) {
+            writes.remove(write);
+            write.complete(null);
+            LOGGER.log(Level.WARNING, "Failed to record " + file, e);
+        }
+    }
+
+    /**
+     * Wait until the responses received so far are saved.
+     */
+    public void flush() {
+        CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Passes the body to another subscriber and keeps a copy of it.
+     */
+    private static class RecordingBodySubscriber<T> implements HttpResponse.BodySubscriber<T> {
+
+        private final HttpResponse.BodySubscriber<T> delegate;
+        private final Consumer<byte[]> onComplete;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        private RecordingBodySubscriber(HttpResponse.BodySubscriber<T> delegate, Consumer<byte[]> onComplete) {
+            this.delegate = delegate;
+            this.onComplete = onComplete;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            for (ByteBuffer buffer : item) {
+                ByteBuffer copy = buffer.duplicate();
+                byte[] bytes = new byte[copy.remaining()];
+                copy.get(bytes);
+                body.writeBytes(bytes);
+            }
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            onComplete.accept(body.toByteArray());
+            delegate.onComplete();
+        }
+
+    }
+
+}
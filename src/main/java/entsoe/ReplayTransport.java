@@ -0,0 +1,90 @@
+package entsoe;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves responses saved by a {@link RecordingTransport} without network.
+ * <p>
+ * A request without recording gets the status 404. To test the behavior under load, the transport can delay each
+ * response and answer a share of the requests with the status 503. Recordings are read once and kept in memory.
+ */
+public class ReplayTransport implements EntsoeTransport {
+
+    private static final Recording UNAVAILABLE = new Recording(503, HttpHeaders.of(Map.of(), (name, value) -> true),
+            "Service Unavailable (injected)".getBytes(StandardCharsets.UTF_8));
+
+    private final Path directory;
+    private final Duration latency;
+    private final double errorRate;
+    private final Map<Path, Recording> recordings = new ConcurrentHashMap<>();
+
+    /**
+     * Serve recordings without delay and errors.
+     * @param directory the directory of the recordings
+     */
+    public ReplayTransport(Path directory) {
+        this(directory, Duration.ZERO, 0);
+    }
+
+    /**
+     * @param directory the directory of the recordings
+     * @param latency the delay of each response
+     * @param errorRate the share of requests that get the status 503, between 0 and 1
+     */
+    public ReplayTransport(Path directory, Duration latency, double errorRate) {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("errorRate must be between 0 and 1");
+        }
+        this.directory = directory;
+        this.latency = latency;
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> send(EntsoeRequest entsoeRequest, HttpRequest httpRequest, HttpResponse.BodyHandler<T> bodyHandler) {
+        CompletableFuture<Void> delay = latency.isZero() ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.runAsync(() -> {
+                }, CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS));
+        return delay.thenCompose(ignored -> {
+            Recording recording;
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                recording = UNAVAILABLE;
+            } else {
+                try {
+                    recording = getRecording(entsoeRequest);
+                } catch (IOException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+            return recording.toResponse(httpRequest, bodyHandler);
+        });
+    }
+
+    private Recording getRecording(EntsoeRequest entsoeRequest) throws IOException {
+        Path file = Recording.getFile(directory, entsoeRequest);
+        Recording recording = recordings.get(file);
+        if (recording == null) {
+            if (!Files.exists(file)) {
+                return new Recording(404, HttpHeaders.of(Map.of("Content-Type", List.of("text/plain")), (name, value) -> true),
+                        ("No recording " + file.getFileName()).getBytes(StandardCharsets.UTF_8));
+            }
+            recording = Recording.read(file);
+            recordings.put(file, recording);
+        }
+        return recording;
+    }
+
+}
@@ -0,0 +1,98 @@
+package entsoe;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Passes the prices of the requested resolution to a consumer while a document is parsed.
+ * Prices of other resolutions are collected and converted in {@link #finish()}, but only for the time slots
+ * without a price of the requested resolution, e.g. the days before a bidding zone switched to a finer resolution.
+ * So the caller gets the requested resolution without another request. Converted prices follow the others.
+ */
+class ResolutionConverter implements ResolutionPricePointConsumer {
+
+    private final EntsoeResolution target;
+    private final PriceSeries.Aggregation aggregation;
+    private final PricePointConsumer consumer;
+    private final Map<EntsoeResolution, PriceSeries.Builder> others = new EnumMap<>(EntsoeResolution.class);
+    // slots with a price of the target resolution, start to end in epoch minutes, adjacent ranges are merged
+    private final TreeMap<Long, Long> covered = new TreeMap<>();
+
+    ResolutionConverter(EntsoeResolution target, PriceSeries.Aggregation aggregation, PricePointConsumer consumer) {
+        this.target = target;
+        this.aggregation = aggregation;
+        this.consumer = consumer;
+    }
+
+    @Override
+    public void accept(EntsoeResolution resolution, long epochMinute, long price) {
+        if (resolution == target) {
+            cover(epochMinute);
+            consumer.accept(epochMinute, price);
+        } else {
+            others.computeIfAbsent(resolution, PriceSeries.Builder::new).accept(epochMinute, price);
+        }
+    }
+
+    /**
+     * Convert the collected prices for the slots without a price of the requested resolution.
+     * If several resolutions are collected, the closest one wins.
+     */
+    void finish() {
+        for (EntsoeResolution source : getSources()) {
+            others.get(source).build().resample(target, aggregation).forEach((epochMinute, price) -> {
+                if (!isCovered(epochMinute)) {
+                    cover(epochMinute);
+                    consumer.accept(epochMinute, price);
+                }
+            });
+        }
+        others.clear();
+        covered.clear();
+    }
+
+    private void cover(long epochMinute) {
+        long start = epochMinute;
+        long end = epochMinute + target.getMinutes();
+        Map.Entry<Long, Long> before = covered.floorEntry(start);
+        if (before != null && before.getValue() >= start) {
+            if (before.getValue() >= end) {
+                return;
+            }
+            start = before.getKey();
+        }
+        Long after = covered.remove(end);
+        covered.put(start, after != null ? after : end);
+    }
+
+    private boolean isCovered(long epochMinute) {
+        Map.Entry<Long, Long> before = covered.floorEntry(epochMinute);
+        return before != null && before.getValue() > epochMinute;
+    }
+
+    /**
+     * @return the collected resolutions that can be converted, the finer ones closest to the target first,
+     * then the coarser ones closest to the target
+     */
+    private List<EntsoeResolution> getSources() {
+        List<EntsoeResolution> finer = new ArrayList<>();
+        List<EntsoeResolution> coarser = new ArrayList<>();
+        int targetMinutes = target.getMinutes();
+        for (EntsoeResolution resolution : others.keySet()) {
+            int minutes = resolution.getMinutes();
+            if (minutes < targetMinutes && targetMinutes % minutes == 0) {
+                finer.add(resolution);
+            } else if (minutes > targetMinutes && minutes % targetMinutes == 0) {
+                coarser.add(resolution);
+            }
+        }
+        finer.sort((a, b) -> b.getMinutes() - a.getMinutes());
+        coarser.sort((a, b) -> a.getMinutes() - b.getMinutes());
+        finer.addAll(coarser);
+        return finer;
+    }
+
+}
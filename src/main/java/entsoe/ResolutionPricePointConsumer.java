@@ -0,0 +1,17 @@
+package entsoe;
+
+/**
+ * Receives prices of any resolution without creating objects per price.
+ */
+@FunctionalInterface
+public interface ResolutionPricePointConsumer {
+
+    /**
+     * Accept a single price.
+     * @param resolution the resolution of the period that contains the price
+     * @param epochMinute the start of the time slot in minutes since 1970-01-01T00:00Z
+     * @param price the price in hundredths of a cent per kWh, e.g. 1234 for 12.34 cent/kWh
+     */
+    void accept(EntsoeResolution resolution, long epochMinute, long price);
+
+}
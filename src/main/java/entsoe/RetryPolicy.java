@@ -0,0 +1,127 @@
+package entsoe;
+
+import java.net.http.HttpHeaders;
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides if and when a failed request is sent again.
+ * <p>
+ * Requests that failed without response and responses with status 429, 500, 502, 503 or 504 are retried.
+ * The backoff grows exponentially from the initial backoff up to the max backoff. Half of it is random, so clients
+ * that failed at the same time do not retry at the same time. If the API sends a Retry-After header, its value is used
+ * instead. A Retry-After longer than the max backoff is not waited for; the request fails with an
+ * {@link EntsoeHttpException} that contains the Retry-After.
+ */
+public class RetryPolicy {
+
+    /**
+     * Three attempts with a backoff from 1 to 30 seconds.
+     */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(3, Duration.ofSeconds(1), Duration.ofSeconds(30));
+
+    /**
+     * A single attempt.
+     */
+    public static final RetryPolicy NONE = new RetryPolicy(1, Duration.ZERO, Duration.ZERO);
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    /**
+     * Create a new policy.
+     * @param maxAttempts the max number of attempts including the first one
+     * @param initialBackoff the backoff after the first attempt
+     * @param maxBackoff the max backoff
+     */
+    public RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be positive");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * @param statusCode the HTTP status code of a response
+     * @return true if a request with this response is retried
+     */
+    public boolean isRetryable(int statusCode) {
+        return statusCode == 429 || statusCode == 500 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * @param attempt the number of the attempt that failed, starting with 1
+     * @param retryAfter the Retry-After of the response or null
+     * @return the time to wait before the next attempt or null if there is no next attempt
+     */
+    public Duration getBackoff(int attempt, Duration retryAfter) {
+        if (attempt >= maxAttempts) {
+            return null;
+        }
+        if (retryAfter != null) {
+            return retryAfter.compareTo(maxBackoff) <= 0 ? retryAfter : null;
+        }
+        long max = maxBackoff.toNanos();
+        long backoff = initialBackoff.toNanos();
+        for (int i = 1; i < attempt && backoff < max; i++) {
+            backoff *= 2;
+        }
+        backoff = Math.min(backoff, max);
+        long half = backoff / 2;
+        return Duration.ofNanos(backoff - half + (half > 0 ? ThreadLocalRandom.current().nextLong(half + 1) : 0));
+    }
+
+    /**
+     * @return the max number of attempts including the first one
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return the backoff after the first attempt
+     */
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * @return the max backoff
+     */
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Read the Retry-After header, which is either a number of seconds or an HTTP date.
+     * @param headers the response headers
+     * @param clock the current time for HTTP dates
+     * @return the time to wait or null if there is no valid header
+     */
+    static Duration getRetryAfter(HttpHeaders headers, Clock clock) {
+        String value = headers.firstValue("Retry-After").orElse(null);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        value = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // not a number of seconds
+        }
+        try {
+            Duration res = Duration.between(clock.instant(), ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+            return res.isNegative() ? Duration.ZERO : res;
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+package entsoe;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-aggregated statistics of prices per bidding zone, resolution, day and month, for reports over long histories.
+ * <p>
+ * The client does not feed the index: the caller adds the series it fetches, e.g. in the {@link BackfillJob.Sink}.
+ * Each slot is counted on its delivery day in local time of the bidding zone. A range of days is answered from the
+ * months it covers completely and the days at its ends, so the cost depends on the number of buckets, not on the
+ * number of slots.
+ * <p>
+ * The slots of a day may come from several series. Each day keeps a bitmap of its indexed slots, so a series that
+ * fills the gaps of a day adds only the slots that are not indexed yet; slots that are indexed already keep their
+ * price, as published prices do not change. The index is thread safe.
+ */
+public class RollupIndex {
+
+    private record Key(BiddingZone biddingZone, EntsoeResolution resolution) {
+    }
+
+    /**
+     * The indexed slots of a day, bit i is the i-th slot after the start of the day.
+     */
+    private record Day(long[] slots, PriceStatistics statistics) {
+    }
+
+    private static final int MAX_SLOTS = 25 * 4; // a day of 25 hours in quarter hours
+
+    private static class Buckets {
+
+        private final NavigableMap<LocalDate, Day> days = new TreeMap<>();
+        private final NavigableMap<YearMonth, PriceStatistics> months = new TreeMap<>();
+
+    }
+
+    private final Map<Key, Buckets> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Add the prices of a series. Missing slots and slots that are already indexed are ignored.
+     * @param biddingZone the bidding zone of the prices
+     * @param priceSeries the prices
+     */
+    public void add(BiddingZone biddingZone, PriceSeries priceSeries) {
+        ZoneId zone = biddingZone.getZoneId();
+        int size = priceSeries.size();
+        int minutes = priceSeries.getResolution().getMinutes();
+        long[] prices = new long[size];
+        Buckets target = buckets.computeIfAbsent(new Key(biddingZone, priceSeries.getResolution()), key -> new Buckets());
+        synchronized (target) {
+            int from = 0;
+            while (from < size) {
+                LocalDate day = getDay(priceSeries.getEpochMinute(from), zone);
+                long dayStart = day.atStartOfDay(zone).toEpochSecond() / 60;
+                long dayEnd = day.plusDays(1).atStartOfDay(zone).toEpochSecond() / 60;
+                Day indexed = target.days.get(day);
+                long[] slots = indexed != null ? indexed.slots().clone() : new long[(MAX_SLOTS + 63) / 64];
+                int count = 0;
+                int to = from;
+                for (; to < size && priceSeries.getEpochMinute(to) < dayEnd; to++) {
+                    long price = priceSeries.getPrice(to);
+                    int slot = (int) ((priceSeries.getEpochMinute(to) - dayStart) / minutes);
+                    if (price != PriceSeries.MISSING && (slots[slot >> 6] & 1L << slot) == 0) {
+                        slots[slot >> 6] |= 1L << slot;
+                        prices[count++] = price;
+                    }
+                }
+                PriceStatistics statistics = PriceStatistics.of(prices, 0, count);
+                if (statistics != null) {
+                    addDay(target, day, new Day(slots, PriceStatistics.merge(indexed != null ? indexed.statistics() : null, statistics)));
+                }
+                from = to;
+            }
+        }
+    }
+
+    private static void addDay(Buckets target, LocalDate day, Day added) {
+        target.days.put(day, added);
+        YearMonth month = YearMonth.from(day);
+        PriceStatistics statistics = null;
+        for (Day monthDay : target.days.subMap(month.atDay(1), true, month.atEndOfMonth(), true).values()) {
+            statistics = PriceStatistics.merge(statistics, monthDay.statistics());
+        }
+        target.months.put(month, statistics);
+    }
+
+    private static LocalDate getDay(long epochMinute, ZoneId zone) {
+        return LocalDate.ofInstant(Instant.ofEpochSecond(epochMinute * 60), zone);
+    }
+
+    /**
+     * Aggregate the prices of a range of days.
+     * @param biddingZone the bidding zone
+     * @param resolution the resolution of the prices
+     * @param from the first day
+     * @param to the last day (inclusive)
+     * @return the statistics or null if no prices of the range are indexed
+     */
+    public PriceStatistics getStatistics(BiddingZone biddingZone, EntsoeResolution resolution, LocalDate from, LocalDate to) {
+        Buckets source = buckets.get(new Key(biddingZone, resolution));
+        if (source == null) {
+            return null;
+        }
+        PriceStatistics res = null;
+        synchronized (source) {
+            LocalDate day = from;
+            while (!day.isAfter(to)) {
+                YearMonth month = YearMonth.from(day);
+                if (day.getDayOfMonth() == 1 && !month.atEndOfMonth().isAfter(to)) {
+                    res = PriceStatistics.merge(res, source.months.get(month));
+                    day = month.plusMonths(1).atDay(1);
+                    continue;
+                }
+                // the days up to the end of the month or the range, whichever comes first
+                LocalDate last = month.atEndOfMonth().isAfter(to) ? to : month.atEndOfMonth();
+                for (Day indexed : source.days.subMap(day, true, last, true).values()) {
+                    res = PriceStatistics.merge(res, indexed.statistics());
+                }
+                day = last.plusDays(1);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @param biddingZone the bidding zone
+     * @param resolution the resolution of the prices
+     * @param from the first day
+     * @param to the last day (inclusive)
+     * @return the statistics of each indexed day of the range
+     */
+    public SortedMap<LocalDate, PriceStatistics> getDailyStatistics(BiddingZone biddingZone, EntsoeResolution resolution, LocalDate from, LocalDate to) {
+        TreeMap<LocalDate, PriceStatistics> res = new TreeMap<>();
+        Buckets source = buckets.get(new Key(biddingZone, resolution));
+        if (source != null) {
+            synchronized (source) {
+                source.days.subMap(from, true, to, true).forEach((day, indexed) -> res.put(day, indexed.statistics()));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @param biddingZone the bidding zone
+     * @param resolution the resolution of the prices
+     * @param from the first month
+     * @param to the last month (inclusive)
+     * @return the statistics of each indexed month of the range
+     */
+    public SortedMap<YearMonth, PriceStatistics> getMonthlyStatistics(BiddingZone biddingZone, EntsoeResolution resolution, YearMonth from, YearMonth to) {
+        TreeMap<YearMonth, PriceStatistics> res = new TreeMap<>();
+        Buckets source = buckets.get(new Key(biddingZone, resolution));
+        if (source != null) {
+            synchronized (source) {
+                res.putAll(source.months.subMap(from, true, to, true));
+            }
+        }
+        return res;
+    }
+
+}
@@ -0,0 +1,190 @@
+package entsoe;
+
+import java.util.Arrays;
+
+/**
+ * A {@link PriceSeries} stored as runs of consecutive slots with the same price.
+ * <p>
+ * Flat periods, e.g. of curve type A03 or of 15-minute series that change only every hour, take a single run
+ * instead of one slot per price. A lookup by time is a binary search over the runs. Runs of missing slots are
+ * stored with the price {@link PriceSeries#MISSING}. Instances are immutable.
+ */
+public final class RunLengthPriceSeries {
+
+    /**
+     * Receives runs without creating objects per run.
+     */
+    @FunctionalInterface
+    public interface RunConsumer {
+
+        /**
+         * Accept a run of equal prices.
+         * @param startEpochMinute the start of the first slot of the run in minutes since 1970-01-01T00:00Z
+         * @param endEpochMinute the end of the last slot of the run (exclusive)
+         * @param price the price of all slots of the run in hundredths of a cent per kWh
+         */
+        void accept(long startEpochMinute, long endEpochMinute, long price);
+
+    }
+
+    private final long startEpochMinute;
+    private final EntsoeResolution resolution;
+    private final int[] runEnds; // index of the slot after each run
+    private final long[] prices;
+
+    private RunLengthPriceSeries(long startEpochMinute, EntsoeResolution resolution, int[] runEnds, long[] prices) {
+        this.startEpochMinute = startEpochMinute;
+        this.resolution = resolution;
+        this.runEnds = runEnds;
+        this.prices = prices;
+    }
+
+    /**
+     * Compress a price series.
+     * @param priceSeries the series
+     * @return the new series
+     */
+    public static RunLengthPriceSeries of(PriceSeries priceSeries) {
+        int size = priceSeries.size();
+        int[] runEnds = new int[Math.min(size, 16)];
+        long[] prices = new long[runEnds.length];
+        int runs = 0;
+        for (int i = 0; i < size; i++) {
+            long price = priceSeries.getPrice(i);
+            if (runs > 0 && prices[runs - 1] == price) {
+                runEnds[runs - 1] = i + 1;
+                continue;
+            }
+            if (runs == runEnds.length) {
+                runEnds = Arrays.copyOf(runEnds, runs * 2);
+                prices = Arrays.copyOf(prices, runs * 2);
+            }
+            runEnds[runs] = i + 1;
+            prices[runs] = price;
+            runs++;
+        }
+        return new RunLengthPriceSeries(priceSeries.getStartEpochMinute(), priceSeries.getResolution(),
+                Arrays.copyOf(runEnds, runs), Arrays.copyOf(prices, runs));
+    }
+
+    /**
+     * @return the uncompressed series
+     */
+    public PriceSeries toPriceSeries() {
+        long[] res = new long[size()];
+        int from = 0;
+        for (int run = 0; run < runEnds.length; run++) {
+            Arrays.fill(res, from, runEnds[run], prices[run]);
+            from = runEnds[run];
+        }
+        return new PriceSeries(startEpochMinute, resolution, res);
+    }
+
+    /**
+     * Pass all runs that are not missing to the consumer in chronological order.
+     * @param consumer the consumer
+     */
+    public void forEachRun(RunConsumer consumer) {
+        int minutes = resolution.getMinutes();
+        int from = 0;
+        for (int run = 0; run < runEnds.length; run++) {
+            if (prices[run] != PriceSeries.MISSING) {
+                consumer.accept(startEpochMinute + (long) from * minutes, startEpochMinute + (long) runEnds[run] * minutes, prices[run]);
+            }
+            from = runEnds[run];
+        }
+    }
+
+    /**
+     * Pass all prices that are not missing to the consumer in chronological order, one per slot.
+     * @param consumer the consumer
+     */
+    public void forEach(PricePointConsumer consumer) {
+        int minutes = resolution.getMinutes();
+        forEachRun((start, end, price) -> {
+            for (long epochMinute = start; epochMinute < end; epochMinute += minutes) {
+                consumer.accept(epochMinute, price);
+            }
+        });
+    }
+
+    /**
+     * @return the number of runs, including runs of missing slots
+     */
+    public int getRunCount() {
+        return runEnds.length;
+    }
+
+    /**
+     * @return the number of slots, including missing slots
+     */
+    public int size() {
+        return runEnds.length == 0 ? 0 : runEnds[runEnds.length - 1];
+    }
+
+    /**
+     * @return the start of the first slot in minutes since 1970-01-01T00:00Z
+     */
+    public long getStartEpochMinute() {
+        return startEpochMinute;
+    }
+
+    /**
+     * @return the end of the last slot (exclusive) in minutes since 1970-01-01T00:00Z
+     */
+    public long getEndEpochMinute() {
+        return startEpochMinute + (long) size() * resolution.getMinutes();
+    }
+
+    /**
+     * @return the length of a slot
+     */
+    public EntsoeResolution getResolution() {
+        return resolution;
+    }
+
+    /**
+     * @param epochMinute a point in time in minutes since 1970-01-01T00:00Z
+     * @return the price of the slot that contains the point in time in hundredths of a cent per kWh or {@link PriceSeries#MISSING}
+     */
+    public long getPrice(long epochMinute) {
+        long offset = epochMinute - startEpochMinute;
+        if (offset < 0 || epochMinute >= getEndEpochMinute()) {
+            return PriceSeries.MISSING;
+        }
+        int slot = (int) (offset / resolution.getMinutes());
+        int run = Arrays.binarySearch(runEnds, slot + 1);
+        return prices[run >= 0 ? run : -run - 1];
+    }
+
+    /**
+     * @param entsoeDate a point in time
+     * @return the price of the slot that contains the point in time in hundredths of a cent per kWh or {@link PriceSeries#MISSING}
+     */
+    public long getPrice(EntsoeDate entsoeDate) {
+        return getPrice(entsoeDate.epochMinute());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RunLengthPriceSeries that)) {
+            return false;
+        }
+        return startEpochMinute == that.startEpochMinute && resolution == that.resolution
+                && Arrays.equals(runEnds, that.runEnds) && Arrays.equals(prices, that.prices);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * Long.hashCode(startEpochMinute) + resolution.hashCode()) + Arrays.hashCode(runEnds)) + Arrays.hashCode(prices);
+    }
+
+    @Override
+    public String toString() {
+        return "RunLengthPriceSeries[" + PriceSeries.toEntsoeDate(startEpochMinute) + ", " + resolution + ", " + size() + " slots, " + runEnds.length + " runs]";
+    }
+
+}
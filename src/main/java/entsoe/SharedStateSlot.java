@@ -0,0 +1,116 @@
+package entsoe;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The state of an {@link ApiRateLimiter} in a memory mapped file, shared by all processes that map the file.
+ * <p>
+ * The file consists of a header (magic, version, max requests, duration and min spacing in millis) and the state
+ * packed into a single long, so a permit is still reserved with one compare-and-set, now on shared memory:
+ * the upper {@value #TIME_BITS} bits hold the theoretical arrival time in millis since 2020-01-01T00:00Z, the lower
+ * {@value #DELTA_BITS} bits the millis from the latest permit to the theoretical arrival time. The clock has whole
+ * millis; if the rate does not divide into whole millis, times are rounded up, so a permit is never granted early.
+ * <p>
+ * The clock is the wall clock, the only clock processes share. It must not jump back by more than the min spacing.
+ */
+final class SharedStateSlot implements ApiRateLimiter.StateSlot {
+
+    /**
+     * The longest duration plus min spacing of a shared limiter.
+     */
+    static final Duration MAX_DURATION = Duration.ofMinutes(60);
+
+    private static final int MAGIC = 0x454E524C; // ENRL
+    private static final int VERSION = 1;
+    private static final int STATE_OFFSET = 32;
+    private static final int FILE_SIZE = 64;
+
+    private static final int TIME_BITS = 42; // 139 years
+    private static final int DELTA_BITS = 22; // 69 minutes
+    private static final long DELTA_MASK = (1L << DELTA_BITS) - 1;
+    private static final long EPOCH_MILLIS = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final MappedByteBuffer buffer;
+
+    private SharedStateSlot(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Map the file, and create it if it does not exist.
+     */
+    static SharedStateSlot open(Path file, int maxRequestsPerDuration, Duration duration, Duration minWaitTimeBetweenRequests) throws IOException {
+        if (duration.plus(minWaitTimeBetweenRequests).compareTo(MAX_DURATION) > 0) {
+            throw new IllegalArgumentException("duration and minWaitTimeBetweenRequests of a shared limiter must not exceed " + MAX_DURATION);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // serialized within the process too, as the file lock alone fails for a second channel of the same process
+            return FileLocks.locked(channel, file.toRealPath(), 0, Long.MAX_VALUE, () -> {
+                boolean created = channel.size() == 0;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+                if (created) {
+                    buffer.putInt(0, MAGIC);
+                    buffer.putInt(4, VERSION);
+                    buffer.putInt(8, maxRequestsPerDuration);
+                    buffer.putLong(16, duration.toMillis());
+                    buffer.putLong(24, minWaitTimeBetweenRequests.toMillis());
+                    LONG.setVolatile(buffer, STATE_OFFSET, 0L); // far in the past: the first permit is granted immediately
+                    buffer.force();
+                } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                    throw new IllegalStateException("Not a rate limit file: " + file);
+                } else if (buffer.getInt(8) != maxRequestsPerDuration || buffer.getLong(16) != duration.toMillis()
+                        || buffer.getLong(24) != minWaitTimeBetweenRequests.toMillis()) {
+                    throw new IllegalStateException("Rate limit file " + file + " was created with other limits: "
+                            + buffer.getInt(8) + " per " + Duration.ofMillis(buffer.getLong(16)));
+                }
+                return new SharedStateSlot(buffer);
+            });
+        }
+    }
+
+    /**
+     * The wall clock in whole millis, so states of whole millis are packed without rounding.
+     */
+    @Override
+    public long now() {
+        return System.currentTimeMillis() * NANOS_PER_MILLI;
+    }
+
+    @Override
+    public ApiRateLimiter.State get() {
+        return decode((long) LONG.getVolatile(buffer, STATE_OFFSET));
+    }
+
+    @Override
+    public boolean compareAndSet(ApiRateLimiter.State expected, ApiRateLimiter.State update) {
+        return LONG.compareAndSet(buffer, STATE_OFFSET, encode(expected), encode(update));
+    }
+
+    static ApiRateLimiter.State decode(long packed) {
+        long theoreticalArrivalTime = (EPOCH_MILLIS + (packed >>> DELTA_BITS)) * NANOS_PER_MILLI;
+        return new ApiRateLimiter.State(theoreticalArrivalTime, theoreticalArrivalTime - (packed & DELTA_MASK) * NANOS_PER_MILLI);
+    }
+
+    static long encode(ApiRateLimiter.State state) {
+        long theoreticalArrivalTime = Math.max(Math.floorDiv(state.theoreticalArrivalTime() + NANOS_PER_MILLI - 1, NANOS_PER_MILLI) - EPOCH_MILLIS, 0);
+        long lastPermit = Math.floorDiv(state.lastPermit() + NANOS_PER_MILLI - 1, NANOS_PER_MILLI) - EPOCH_MILLIS;
+        long delta = Math.min(Math.max(theoreticalArrivalTime - lastPermit, 0), DELTA_MASK);
+        if (theoreticalArrivalTime >>> TIME_BITS != 0) {
+            throw new IllegalStateException("Time out of range of a shared rate limiter: " + Instant.ofEpochMilli(EPOCH_MILLIS + theoreticalArrivalTime));
+        }
+        return theoreticalArrivalTime << DELTA_BITS | delta;
+    }
+
+}
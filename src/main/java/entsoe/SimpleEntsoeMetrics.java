@@ -0,0 +1,268 @@
+package entsoe;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link EntsoeMetrics} that keeps counters and latency histograms in memory.
+ * Recording is lock free and allocates nothing per call for HTTP status codes from 100 to 599, so one instance can be
+ * shared by all clients of an application and read periodically, e.g. to export the values to a monitoring system.
+ */
+public class SimpleEntsoeMetrics implements EntsoeMetrics {
+
+    private static final int MIN_STATUS = 100;
+    private static final int MAX_STATUS = 599;
+
+    /**
+     * Histogram of durations in nanos with 4 buckets per power of two, so percentiles have an error of at most 25%.
+     */
+    public static final class Histogram {
+
+        private static final int BUCKETS = 248;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        /**
+         * @param value the duration in nanos. Negative values are recorded as 0.
+         */
+        public void record(long value) {
+            value = Math.max(value, 0);
+            buckets.incrementAndGet(indexOf(value));
+            count.increment();
+            total.add(value);
+            max.accumulate(value);
+        }
+
+        private static int indexOf(long value) {
+            if (value < 4) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            return 4 * (exponent - 1) + (int) ((value >>> (exponent - 2)) & 3);
+        }
+
+        private static long upperBoundOf(int index) {
+            if (index < 4) {
+                return index;
+            }
+            int exponent = index / 4 + 1;
+            long lower = (4L + index % 4) << (exponent - 2);
+            return lower + (1L << (exponent - 2)) - 1;
+        }
+
+        /**
+         * @return the number of recorded values
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * @return the sum of all recorded values
+         */
+        public long getTotal() {
+            return total.sum();
+        }
+
+        /**
+         * @return the largest recorded value
+         */
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * @return the mean of the recorded values or 0 if there are none
+         */
+        public long getMean() {
+            long n = getCount();
+            return n == 0 ? 0 : getTotal() / n;
+        }
+
+        /**
+         * @param percentile the percentile between 0 and 1, e.g. 0.99
+         * @return the upper bound of the bucket that contains the percentile, but not more than {@link #getMax()}
+         */
+        public long getPercentile(double percentile) {
+            long n = 0;
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = buckets.get(i);
+                n += snapshot[i];
+            }
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(i), getMax());
+                }
+            }
+            return getMax();
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + getCount() + ", mean=" + getMean() + "ns, p50=" + getPercentile(0.5)
+                    + "ns, p99=" + getPercentile(0.99) + "ns, max=" + getMax() + "ns";
+        }
+
+    }
+
+    private final Histogram requestLatency = new Histogram();
+    private final Histogram rateLimiterWait = new Histogram();
+    private final Histogram parseTime = new Histogram();
+    private final AtomicLongArray statusCounts = new AtomicLongArray(MAX_STATUS - MIN_STATUS + 1);
+    private final Map<Integer, LongAdder> otherStatusCounts = new ConcurrentHashMap<>(); // not a valid HTTP status
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder pointsParsed = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0);
+
+    @Override
+    public void onRequest(EntsoeRequest entsoeRequest, int statusCode, long nanos) {
+        requestLatency.record(nanos);
+        if (statusCode >= MIN_STATUS && statusCode <= MAX_STATUS) {
+            statusCounts.incrementAndGet(statusCode - MIN_STATUS);
+        } else {
+            otherStatusCounts.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+        }
+    }
+
+    @Override
+    public void onRequestFailed(EntsoeRequest entsoeRequest, Throwable cause, long nanos) {
+        requestLatency.record(nanos);
+        failedRequests.increment();
+    }
+
+    @Override
+    public void onBytesReceived(EntsoeRequest entsoeRequest, long bytes) {
+        bytesReceived.add(bytes);
+    }
+
+    @Override
+    public void onRateLimiterWait(long nanos, int queueDepth) {
+        rateLimiterWait.record(nanos);
+        maxQueueDepth.accumulate(queueDepth);
+    }
+
+    @Override
+    public void onParse(EntsoeResolution resolution, int points, long nanos) {
+        parseTime.record(nanos);
+        pointsParsed.add(points);
+    }
+
+    @Override
+    public void onCacheAccess(boolean hit) {
+        (hit ? cacheHits : cacheMisses).increment();
+    }
+
+    /**
+     * @return the latency of all requests, including failed requests
+     */
+    public Histogram getRequestLatency() {
+        return requestLatency;
+    }
+
+    /**
+     * @return the time waited for permits of the rate limiter
+     */
+    public Histogram getRateLimiterWait() {
+        return rateLimiterWait;
+    }
+
+    /**
+     * @return the parse time per document
+     */
+    public Histogram getParseTime() {
+        return parseTime;
+    }
+
+    /**
+     * @return the number of responses per HTTP status code
+     */
+    public Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> res = new TreeMap<>();
+        for (int i = 0; i < statusCounts.length(); i++) {
+            long count = statusCounts.get(i);
+            if (count > 0) {
+                res.put(MIN_STATUS + i, count);
+            }
+        }
+        otherStatusCounts.forEach((status, adder) -> res.put(status, adder.sum()));
+        return res;
+    }
+
+    /**
+     * @return the number of requests without response
+     */
+    public long getFailedRequests() {
+        return failedRequests.sum();
+    }
+
+    /**
+     * @return the number of bytes received
+     */
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    /**
+     * @return the number of prices parsed
+     */
+    public long getPointsParsed() {
+        return pointsParsed.sum();
+    }
+
+    /**
+     * @return the number of days answered by the cache
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return the number of days the cache had to request
+     */
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * @return the ratio of cache hits to all cache accesses or 0 if there were none
+     */
+    public double getCacheHitRatio() {
+        long hits = getCacheHits();
+        long total = hits + getCacheMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return the largest number of callers that were already waiting when a permit was granted
+     */
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    @Override
+    public String toString() {
+        return "requests: " + requestLatency + ", status: " + getStatusCounts() + ", failed: " + getFailedRequests()
+                + ", bytes: " + getBytesReceived() + "\n"
+                + "rate limiter wait: " + rateLimiterWait + ", max queue depth: " + getMaxQueueDepth() + "\n"
+                + "parse: " + parseTime + ", points: " + getPointsParsed() + "\n"
+                + "cache hit ratio: " + getCacheHitRatio();
+    }
+
+}
@@ -0,0 +1,165 @@
+package entsoe;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Streaming parser that reads the document in a single pass without building a DOM.
+ * Only TimeSeries/curveType, Period/resolution, Period/timeInterval and Point/position, Point/price.amount are evaluated.
+ * Positions omitted by curve type A03 are filled with the price of the previous point, see {@link TimeSeriesParser}.
+ */
+public class StaxTimeSeriesParser implements TimeSeriesParser {
+
+    private static final Logger LOGGER = Logger.getLogger(StaxTimeSeriesParser.class.getName());
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private static EntsoeAcknowledgementException readAcknowledgement(XMLStreamReader reader) throws XMLStreamException {
+        String code = null;
+        String text = null;
+        boolean inReason = false;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if (name.equals("Reason")) {
+                    inReason = true;
+                } else if (inReason && code == null && name.equals("code")) {
+                    code = reader.getElementText().trim();
+                } else if (inReason && text == null && name.equals("text")) {
+                    text = reader.getElementText().trim();
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("Reason")) {
+                break; // the first reason is the relevant one
+            }
+        }
+        return EntsoeAcknowledgementException.of(code, text);
+    }
+
+    @Override
+    public void parseAll(InputStream inputStream, ResolutionPricePointConsumer consumer) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+            boolean inPeriod = false;
+            boolean inTimeInterval = false;
+            boolean inPoint = false;
+            EntsoeResolution resolution = null;
+            long periodStart = 0;
+            boolean hasPeriodStart = false;
+            long periodEnd = 0;
+            boolean hasPeriodEnd = false;
+            boolean curveA03 = false;
+            int lastPosition = 0;
+            long lastPrice = 0;
+            String position = null;
+            String priceAmount = null;
+            boolean root = true;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (root) {
+                        root = false;
+                        if (name.equals(ACKNOWLEDGEMENT_DOCUMENT)) {
+                            throw readAcknowledgement(reader);
+                        }
+                    }
+                    if (!inPeriod) {
+                        if (name.equals("Period")) {
+                            inPeriod = true;
+                            resolution = null;
+                            hasPeriodStart = false;
+                            hasPeriodEnd = false;
+                            lastPosition = 0;
+                        } else if (name.equals("TimeSeries")) {
+                            curveA03 = false;
+                        } else if (name.equals("curveType")) {
+                            curveA03 = reader.getElementText().trim().equals(CURVE_TYPE_A03);
+                        }
+                    } else if (inPoint) {
+                        if (name.equals("position")) {
+                            position = reader.getElementText();
+                        } else if (name.equals("price.amount")) {
+                            priceAmount = reader.getElementText();
+                        }
+                    } else if (name.equals("Point")) {
+                        inPoint = true;
+                        position = null;
+                        priceAmount = null;
+                    } else if (name.equals("timeInterval")) {
+                        inTimeInterval = true;
+                    } else if (name.equals("start") && inTimeInterval) {
+                        String start = reader.getElementText().trim();
+                        LOGGER.fine("Found start of time interval: " + start);
+                        periodStart = ZonedDateTime.parse(start).toEpochSecond() / 60;
+                        hasPeriodStart = true;
+                    } else if (name.equals("end") && inTimeInterval) {
+                        periodEnd = ZonedDateTime.parse(reader.getElementText().trim()).toEpochSecond() / 60;
+                        hasPeriodEnd = true;
+                    } else if (name.equals("resolution")) {
+                        resolution = EntsoeResolution.fromName(reader.getElementText().trim());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if (name.equals("Period")) {
+                        inPeriod = false;
+                        if (curveA03 && lastPosition > 0 && hasPeriodEnd) {
+                            // the last point is valid until the end of the period
+                            int positions = (int) ((periodEnd - periodStart) / resolution.getMinutes());
+                            for (int p = lastPosition + 1; p <= positions; p++) {
+                                consumer.accept(resolution, periodStart + (p - 1L) * resolution.getMinutes(), lastPrice);
+                            }
+                        }
+                    } else if (name.equals("timeInterval")) {
+                        inTimeInterval = false;
+                    } else if (name.equals("Point") && inPoint) {
+                        inPoint = false;
+                        if (resolution != null && hasPeriodStart && position != null && priceAmount != null) {
+                            long price = TimeSeriesParser.toFixedPoint(priceAmount);
+                            int p = Integer.parseInt(position.trim());
+                            if (curveA03 && lastPosition > 0) {
+                                for (int omitted = lastPosition + 1; omitted < p; omitted++) {
+                                    consumer.accept(resolution, periodStart + (omitted - 1L) * resolution.getMinutes(), lastPrice);
+                                }
+                            }
+                            lastPosition = p;
+                            lastPrice = price;
+                            long epochMinute = periodStart + (p - 1L) * resolution.getMinutes();
+                            if (LOGGER.isLoggable(Level.FINER)) {
+                                LOGGER.finer("price mapping " + PriceSeries.toEntsoeDate(epochMinute) + "=" + price);
+                            }
+                            consumer.accept(resolution, epochMinute, price);
+                        }
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    LOGGER.fine("Failed to close reader: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+}
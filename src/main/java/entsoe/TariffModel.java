@@ -0,0 +1,296 @@
+package entsoe;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.List;
+
+/**
+ * Computes retail gross prices from spot prices.
+ * <p>
+ * The gross price of a slot is
+ * <pre>
+ *     round((spot + net fees + levies + time-of-use fee) * (1 + VAT)) + gross fees
+ * </pre>
+ * All amounts are in cent/kWh with at most two decimals, the result is rounded half up to two decimals.
+ * The computation uses the fixed-point prices of a {@link PriceSeries} (hundredths of a cent per kWh) and is exact.
+ * <p>
+ * A model may be restricted to a range of days, so several versions of a tariff can be applied to a series with
+ * {@link #apply(PriceSeries, List)}. Days and time-of-use windows are in the zone of the model. Instances are immutable.
+ */
+public final class TariffModel {
+
+    private static final long VAT_SCALE = 1_000_000;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * The gross price of TransnetBW customers in Germany: 19% VAT on the spot price and a gross fee of 15.39 cent/kWh.
+     */
+    public static final TariffModel TRANSNET_BW = builder()
+            .vat(new BigDecimal("0.19"))
+            .grossFee(new BigDecimal("15.39"))
+            .build();
+
+    private final long vat; // parts per million
+    private final long netFee;
+    private final long grossFee;
+    private final long[] timeOfUseFees; // by minute of day, null if there are none
+    private final ZoneId zone;
+    private final long validFrom; // epoch minute, inclusive
+    private final long validUntil; // epoch minute, exclusive
+
+    private TariffModel(Builder builder) {
+        this.vat = builder.vat;
+        this.netFee = builder.netFee;
+        this.grossFee = builder.grossFee;
+        this.timeOfUseFees = builder.timeOfUseFees != null ? builder.timeOfUseFees.clone() : null;
+        this.zone = builder.zone;
+        this.validFrom = builder.validFrom != null ? builder.validFrom.atStartOfDay(zone).toEpochSecond() / 60 : Long.MIN_VALUE;
+        this.validUntil = builder.validUntil != null ? builder.validUntil.plusDays(1).atStartOfDay(zone).toEpochSecond() / 60 : Long.MAX_VALUE;
+    }
+
+    /**
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param epochMinute a point in time in minutes since 1970-01-01T00:00Z
+     * @return true if the model applies to the point in time
+     */
+    public boolean isValid(long epochMinute) {
+        return epochMinute >= validFrom && epochMinute < validUntil;
+    }
+
+    /**
+     * Compute the gross price of a single slot. The validity of the model is not checked.
+     * @param epochMinute the start of the slot in minutes since 1970-01-01T00:00Z
+     * @param spotPrice the spot price in hundredths of a cent per kWh or {@link PriceSeries#MISSING}
+     * @return the gross price in hundredths of a cent per kWh or {@link PriceSeries#MISSING} for a missing spot price
+     */
+    public long getGrossPrice(long epochMinute, long spotPrice) {
+        if (spotPrice == PriceSeries.MISSING) {
+            return PriceSeries.MISSING;
+        }
+        long timeOfUseFee = 0;
+        if (timeOfUseFees != null) {
+            long localMinute = epochMinute + zone.getRules().getOffset(Instant.ofEpochSecond(epochMinute * 60)).getTotalSeconds() / 60;
+            timeOfUseFee = timeOfUseFees[Math.floorMod(localMinute, MINUTES_PER_DAY)];
+        }
+        return computeGrossPrice(spotPrice, timeOfUseFee);
+    }
+
+    private long computeGrossPrice(long spotPrice, long timeOfUseFee) {
+        long net = spotPrice + netFee + timeOfUseFee;
+        return PriceSeries.divideHalfUp(Math.multiplyExact(net, VAT_SCALE + vat), VAT_SCALE) + grossFee;
+    }
+
+    /**
+     * Compute the gross price of a spot price with any number of decimals.
+     * @param spotPrice the spot price in cent/kWh
+     * @return the gross price in cent/kWh with a scale of 2
+     * @throws IllegalStateException if the model has time-of-use fees, which depend on the time of the price
+     */
+    public BigDecimal getGrossPrice(BigDecimal spotPrice) {
+        if (timeOfUseFees != null) {
+            throw new IllegalStateException("Time-of-use fees require the time of the price");
+        }
+        BigDecimal net = spotPrice.add(BigDecimal.valueOf(netFee, 2));
+        BigDecimal gross = net.multiply(BigDecimal.valueOf(VAT_SCALE + vat, 6)).setScale(2, RoundingMode.HALF_UP);
+        return gross.add(BigDecimal.valueOf(grossFee, 2));
+    }
+
+    /**
+     * Compute the gross prices of a series in a single pass.
+     * @param priceSeries the spot prices
+     * @return the gross prices. Slots that are missing or outside the validity of the model are missing.
+     */
+    public PriceSeries apply(PriceSeries priceSeries) {
+        return apply(priceSeries, List.of(this));
+    }
+
+    /**
+     * Compute the gross prices of a series with several versions of a tariff.
+     * Each slot uses the first model in the list that is valid at the start of the slot.
+     * @param priceSeries the spot prices
+     * @param models the versions of the tariff
+     * @return the gross prices. Slots that are missing or not covered by any model are missing.
+     */
+    public static PriceSeries apply(PriceSeries priceSeries, List<TariffModel> models) {
+        int size = priceSeries.size();
+        long[] res = new long[size];
+        TariffModel model = null;
+        long modelEnd = Long.MIN_VALUE; // the model is the right one until this epoch minute
+        long offsetMinutes = 0;
+        long offsetEnd = Long.MIN_VALUE; // the offset of the zone is valid until this epoch minute
+        for (int i = 0; i < size; i++) {
+            long spotPrice = priceSeries.getPrice(i);
+            long epochMinute = priceSeries.getEpochMinute(i);
+            if (epochMinute >= modelEnd) {
+                model = null;
+                modelEnd = Long.MAX_VALUE;
+                for (TariffModel candidate : models) {
+                    if (candidate.validFrom > epochMinute) {
+                        modelEnd = Math.min(modelEnd, candidate.validFrom); // takes precedence once it starts
+                    } else if (epochMinute < candidate.validUntil) {
+                        model = candidate;
+                        modelEnd = Math.min(modelEnd, candidate.validUntil);
+                        break;
+                    }
+                }
+                offsetEnd = Long.MIN_VALUE;
+            }
+            if (model == null || spotPrice == PriceSeries.MISSING) {
+                res[i] = PriceSeries.MISSING;
+                continue;
+            }
+            long timeOfUseFee = 0;
+            if (model.timeOfUseFees != null) {
+                if (epochMinute >= offsetEnd) {
+                    ZoneRules rules = model.zone.getRules();
+                    Instant instant = Instant.ofEpochSecond(epochMinute * 60);
+                    offsetMinutes = rules.getOffset(instant).getTotalSeconds() / 60;
+                    ZoneOffsetTransition transition = rules.nextTransition(instant);
+                    offsetEnd = transition != null ? transition.toEpochSecond() / 60 : Long.MAX_VALUE;
+                }
+                timeOfUseFee = model.timeOfUseFees[Math.floorMod(epochMinute + offsetMinutes, MINUTES_PER_DAY)];
+            }
+            res[i] = model.computeGrossPrice(spotPrice, timeOfUseFee);
+        }
+        return new PriceSeries(priceSeries.getStartEpochMinute(), priceSeries.getResolution(), res);
+    }
+
+    @Override
+    public String toString() {
+        return "TariffModel[vat=" + BigDecimal.valueOf(vat, 6).stripTrailingZeros().toPlainString()
+                + ", netFee=" + BigDecimal.valueOf(netFee, 2) + ", grossFee=" + BigDecimal.valueOf(grossFee, 2)
+                + (timeOfUseFees != null ? ", timeOfUse" : "") + "]";
+    }
+
+    /**
+     * Builder for {@link TariffModel}. All amounts are in cent/kWh with at most two decimals.
+     */
+    public static class Builder {
+
+        private long vat;
+        private long netFee;
+        private long grossFee;
+        private long[] timeOfUseFees;
+        private ZoneId zone = ZoneId.of("Europe/Berlin");
+        private LocalDate validFrom;
+        private LocalDate validUntil;
+
+        private Builder() {
+        }
+
+        /**
+         * @param vat the VAT rate, e.g. 0.19 for 19%. At most six decimals.
+         * @return this builder
+         */
+        public Builder vat(BigDecimal vat) {
+            try {
+                this.vat = vat.movePointRight(6).longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("VAT must have at most six decimals: " + vat, e);
+            }
+            return this;
+        }
+
+        /**
+         * @param fee a grid fee of the distribution system operator, before VAT. Fees are added up.
+         * @return this builder
+         */
+        public Builder netFee(BigDecimal fee) {
+            this.netFee += toFixedPoint(fee);
+            return this;
+        }
+
+        /**
+         * @param levy a levy or surcharge, before VAT. Levies are added up.
+         * @return this builder
+         */
+        public Builder levy(BigDecimal levy) {
+            return netFee(levy);
+        }
+
+        /**
+         * @param fee a fee that already includes VAT. Fees are added up.
+         * @return this builder
+         */
+        public Builder grossFee(BigDecimal fee) {
+            this.grossFee += toFixedPoint(fee);
+            return this;
+        }
+
+        /**
+         * Add a network fee for a time of day, before VAT. Windows may overlap, their fees are added up.
+         * @param from the start of the window in the zone of the model
+         * @param to the end of the window (exclusive). A window that ends before it starts wraps around midnight,
+         *           a window that ends when it starts covers the whole day.
+         * @param fee the fee
+         * @return this builder
+         */
+        public Builder timeOfUseFee(LocalTime from, LocalTime to, BigDecimal fee) {
+            long value = toFixedPoint(fee);
+            if (timeOfUseFees == null) {
+                timeOfUseFees = new long[MINUTES_PER_DAY];
+            }
+            int start = from.getHour() * 60 + from.getMinute();
+            int length = Math.floorMod(to.getHour() * 60 + to.getMinute() - start, MINUTES_PER_DAY);
+            if (length == 0) {
+                length = MINUTES_PER_DAY;
+            }
+            for (int i = 0; i < length; i++) {
+                timeOfUseFees[(start + i) % MINUTES_PER_DAY] += value;
+            }
+            return this;
+        }
+
+        /**
+         * @param zone the zone of the validity days and time-of-use windows. Default is Europe/Berlin.
+         * @return this builder
+         */
+        public Builder zone(ZoneId zone) {
+            this.zone = zone;
+            return this;
+        }
+
+        /**
+         * @param validFrom the first day the model applies to or null
+         * @param validUntil the last day the model applies to or null
+         * @return this builder
+         */
+        public Builder validity(LocalDate validFrom, LocalDate validUntil) {
+            if (validFrom != null && validUntil != null && validUntil.isBefore(validFrom)) {
+                throw new IllegalArgumentException("validUntil must not be before validFrom");
+            }
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+            return this;
+        }
+
+        /**
+         * @return the new model
+         */
+        public TariffModel build() {
+            return new TariffModel(this);
+        }
+
+        private static long toFixedPoint(BigDecimal amount) {
+            try {
+                return amount.movePointRight(2).longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Amount must have at most two decimals: " + amount, e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,226 @@
+package entsoe;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache for the time series of single days.
+ * <p>
+ * Day ahead prices never change once they are published, so a time series that covers the whole requested day
+ * is kept until it is evicted by the LRU limit. A time series that covers only a part of the day, e.g. because the
+ * last slots belong to a delivery day that is not published yet, is kept until the publication time of its last
+ * delivery day (12:45 CET on the day before) and indefinitely once that has passed. An empty time series usually
+ * means the prices are not published yet. It is cached until the publication time of the day or, if that has already
+ * passed, for the negative TTL only. Concurrent requests for the same day share one request to the API.
+ */
+public class TimeSeriesCache {
+
+    /**
+     * The time the results of the day ahead auction are usually published on the day before delivery.
+     */
+    public static final LocalTime PUBLICATION_TIME = LocalTime.of(12, 45);
+
+    /**
+     * The time zone of {@link #PUBLICATION_TIME}.
+     */
+    public static final ZoneId PUBLICATION_ZONE = ZoneId.of("Europe/Brussels");
+
+    /**
+     * The cache key
+     * @param biddingZone the bidding zone
+     * @param documentType the document type
+     * @param day the requested day
+     * @param resolution the resolution
+     */
+    public record Key(BiddingZone biddingZone, EntsoeDocumentType documentType, LocalDate day, EntsoeResolution resolution) {
+
+        /**
+         * Creates the key of a single day request.
+         * @param entsoeRequest the request - must cover a single day
+         * @param resolution the resolution
+         * @return the key
+         */
+        public static Key of(EntsoeRequest entsoeRequest, EntsoeResolution resolution) {
+            return new Key(entsoeRequest.biddingZone(), entsoeRequest.documentType(),
+                    entsoeRequest.period().start().utcDate().toLocalDate(), resolution);
+        }
+
+    }
+
+    private record Entry(TreeMap<EntsoeDate, BigDecimal> timeSeries, long expiresAt) {
+    }
+
+    private final int maxEntries;
+    private final Duration negativeTtl;
+    private final Clock clock;
+
+    private final LinkedHashMap<Key, Entry> entries;
+    private final Map<Key, CompletableFuture<TreeMap<EntsoeDate, BigDecimal>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new cache.
+     * @param maxEntries the max number of days kept in memory
+     * @param negativeTtl how long an empty time series is cached after its publication time has passed
+     */
+    public TimeSeriesCache(int maxEntries, Duration negativeTtl) {
+        this(maxEntries, negativeTtl, Clock.systemUTC());
+    }
+
+    /**
+     * Create a new cache.
+     * @param maxEntries the max number of days kept in memory
+     * @param negativeTtl how long an empty time series is cached after its publication time has passed
+     * @param clock the clock used for expiry
+     */
+    public TimeSeriesCache(int maxEntries, Duration negativeTtl, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.negativeTtl = negativeTtl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > TimeSeriesCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached time series or loads it. Concurrent calls for the same key share one load.
+     * @param key the key
+     * @param loader loads the time series if it is not cached
+     * @return a future of a copy of the time series
+     */
+    public CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> get(Key key, Supplier<CompletableFuture<TreeMap<EntsoeDate, BigDecimal>>> loader) {
+        return get(key, loader, new boolean[1]);
+    }
+
+    /**
+     * See {@link #get(Key, Supplier)}.
+     * @param hit set to true if the time series was cached, false if it is loaded by this or a concurrent call
+     */
+    CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> get(Key key, Supplier<CompletableFuture<TreeMap<EntsoeDate, BigDecimal>>> loader, boolean[] hit) {
+        TreeMap<EntsoeDate, BigDecimal> cached = getIfPresent(key);
+        if (cached != null) {
+            hit[0] = true;
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> future = new CompletableFuture<>();
+        CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing.thenApply(TreeMap::new);
+        }
+        cached = getIfPresent(key); // a load may have finished in the meantime
+        if (cached != null) {
+            hit[0] = true;
+            inFlight.remove(key, future);
+            future.complete(cached);
+            return future;
+        }
+        try {
+            loader.get().whenComplete((timeSeries, e) -> {
+                if (e == null) {
+                    put(key, timeSeries);
+                }
+                inFlight.remove(key, future);
+                if (e == null) {
+                    future.complete(timeSeries);
+                } else {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return future.thenApply(TreeMap::new);
+    }
+
+    /**
+     * @param key the key
+     * @return a copy of the cached time series or null if it is not cached or expired
+     */
+    public TreeMap<EntsoeDate, BigDecimal> getIfPresent(Key key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() <= clock.millis()) {
+                entries.remove(key);
+                return null;
+            }
+            return new TreeMap<>(entry.timeSeries());
+        }
+    }
+
+    /**
+     * Add a time series to the cache.
+     * @param key the key
+     * @param timeSeries the time series. A copy is cached.
+     */
+    public void put(Key key, TreeMap<EntsoeDate, BigDecimal> timeSeries) {
+        long expiresAt = timeSeries.isEmpty() ? getNegativeExpiry(key) : getExpiry(key, timeSeries);
+        Entry entry = new Entry(new TreeMap<>(timeSeries), expiresAt);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private long getNegativeExpiry(Key key) {
+        long now = clock.millis();
+        long publication = getPublication(key.day());
+        return publication > now ? publication : now + negativeTtl.toMillis();
+    }
+
+    /**
+     * @return never if the time series covers the requested day, otherwise the publication time of the
+     * delivery day of its last slot, or never if that has passed
+     */
+    private long getExpiry(Key key, TreeMap<EntsoeDate, BigDecimal> timeSeries) {
+        // the requested period, see EntsoePeriod#periodStart() and EntsoePeriod#periodEnd()
+        long start = key.day().atStartOfDay(EntsoeDate.UTC_ZONE).toEpochSecond() / 60;
+        long end = start + 23 * 60;
+        int slots = timeSeries.subMap(PriceSeries.toEntsoeDate(start), true, PriceSeries.toEntsoeDate(end), false).size();
+        if (slots >= (end - start) / key.resolution().getMinutes()) {
+            return Long.MAX_VALUE;
+        }
+        LocalDate lastDeliveryDay = LocalDate.ofInstant(Instant.ofEpochSecond((end - 1) * 60), key.biddingZone().getZoneId());
+        long publication = getPublication(lastDeliveryDay);
+        return publication > clock.millis() ? publication : Long.MAX_VALUE;
+    }
+
+    private static long getPublication(LocalDate deliveryDay) {
+        return ZonedDateTime.of(deliveryDay.minusDays(1), PUBLICATION_TIME, PUBLICATION_ZONE).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return the number of cached days
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package entsoe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.TreeMap;
+
+/**
+ * Parser for the Publication_MarketDocument returned by the ENTSO-E API for day ahead prices.
+ * <p>
+ * Time series of curve type A03 omit positions whose price equals the previous position. The parsers fill these
+ * positions with the previous price, up to the end of the period, so a series has no gaps for omitted positions.
+ */
+public interface TimeSeriesParser {
+
+    /**
+     * The curve type of time series that omit points with an unchanged price.
+     */
+    String CURVE_TYPE_A03 = "A03";
+
+    /**
+     * The root element of the document the API returns instead of a Publication_MarketDocument if it cannot deliver data.
+     */
+    String ACKNOWLEDGEMENT_DOCUMENT = "Acknowledgement_MarketDocument";
+
+    /**
+     * Parse the document and pass the prices of all periods to the consumer in document order.
+     * Periods of a resolution that is not an {@link EntsoeResolution} are ignored.
+     * @param inputStream The XML document
+     * @param consumer receives the prices in hundredths of a cent per kWh and the resolution of their period
+     * @throws IOException if the document cannot be read
+     * @throws IllegalStateException if the document is not well-formed
+     * @throws EntsoeAcknowledgementException if the document is an acknowledgement, {@link EntsoeNoDataException} if it says that there is no data
+     */
+    void parseAll(InputStream inputStream, ResolutionPricePointConsumer consumer) throws IOException;
+
+    /**
+     * Parse the document and pass all prices of the requested resolution to the consumer in document order.
+     * @param inputStream The XML document
+     * @param entsoeResolution The resolution to extract. Periods of other resolutions are ignored.
+     * @param consumer receives the prices in hundredths of a cent per kWh
+     * @throws IOException if the document cannot be read
+     * @throws IllegalStateException if the document is not well-formed
+     * @throws EntsoeAcknowledgementException if the document is an acknowledgement, {@link EntsoeNoDataException} if it says that there is no data
+     */
+    default void parse(InputStream inputStream, EntsoeResolution entsoeResolution, PricePointConsumer consumer) throws IOException {
+        parseAll(inputStream, (resolution, epochMinute, price) -> {
+            if (resolution == entsoeResolution) {
+                consumer.accept(epochMinute, price);
+            }
+        });
+    }
+
+    /**
+     * Parse the document and add all prices of the requested resolution to the time series.
+     * @param inputStream The XML document
+     * @param entsoeResolution The resolution to extract. Periods of other resolutions are ignored.
+     * @param timeSeries The map the prices are added to
+     * @throws IOException if the document cannot be read
+     * @throws IllegalStateException if the document is not well-formed
+     * @throws EntsoeAcknowledgementException if the document is an acknowledgement, {@link EntsoeNoDataException} if it says that there is no data
+     */
+    default void parse(InputStream inputStream, EntsoeResolution entsoeResolution, TreeMap<EntsoeDate, BigDecimal> timeSeries) throws IOException {
+        parse(inputStream, entsoeResolution, (epochMinute, price) ->
+                timeSeries.put(PriceSeries.toEntsoeDate(epochMinute), BigDecimal.valueOf(price, 2)));
+    }
+
+    /**
+     * Parse the document into a price series.
+     * @param inputStream The XML document
+     * @param entsoeResolution The resolution to extract. Periods of other resolutions are ignored.
+     * @return the price series
+     * @throws IOException if the document cannot be read
+     * @throws IllegalStateException if the document is not well-formed
+     * @throws EntsoeAcknowledgementException if the document is an acknowledgement, {@link EntsoeNoDataException} if it says that there is no data
+     */
+    default PriceSeries parse(InputStream inputStream, EntsoeResolution entsoeResolution) throws IOException {
+        PriceSeries.Builder builder = new PriceSeries.Builder(entsoeResolution);
+        parse(inputStream, entsoeResolution, builder);
+        return builder.build();
+    }
+
+    /**
+     * Returns the default parser. This is the streaming parser {@link StaxTimeSeriesParser},
+     * unless the Java Property or ENV variable {@link EntsoeDefines#ENTSOE_XML_PARSER} is set to DOM.
+     * @return the parser to use
+     */
+    static TimeSeriesParser defaultParser() {
+        String property = System.getProperty(EntsoeDefines.ENTSOE_XML_PARSER);
+        if (property==null) {
+            property = System.getenv(EntsoeDefines.ENTSOE_XML_PARSER);
+        }
+        if ("DOM".equalsIgnoreCase(property)) {
+            return new DomTimeSeriesParser();
+        }
+        return new StaxTimeSeriesParser();
+    }
+
+    /**
+     * Convert a price.amount value (EUR/MWh) into cent/kWh.
+     * @param priceAmount the price.amount value of a Point
+     * @return the price in cent/kWh with a scale of 2
+     */
+    static BigDecimal toCentPerKWh(String priceAmount) {
+        BigDecimal price = new BigDecimal(priceAmount.trim()).divide(BigDecimal.TEN, RoundingMode.HALF_UP);
+        return price.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Convert a price.amount value (EUR/MWh) into hundredths of a cent per kWh without creating a BigDecimal.
+     * The result is exactly the unscaled value of {@link #toCentPerKWh(String)}.
+     * @param priceAmount the price.amount value of a Point
+     * @return the price in hundredths of a cent per kWh
+     */
+    static long toFixedPoint(CharSequence priceAmount) {
+        int begin = 0;
+        int end = priceAmount.length();
+        while (begin < end && Character.isWhitespace(priceAmount.charAt(begin))) {
+            begin++;
+        }
+        while (end > begin && Character.isWhitespace(priceAmount.charAt(end - 1))) {
+            end--;
+        }
+        boolean negative = false;
+        if (begin < end && (priceAmount.charAt(begin) == '-' || priceAmount.charAt(begin) == '+')) {
+            negative = priceAmount.charAt(begin) == '-';
+            begin++;
+        }
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        for (int i = begin; i < end; i++) {
+            char c = priceAmount.charAt(i);
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+                digits++;
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                digits = Integer.MAX_VALUE; // exponent or invalid character
+                break;
+            }
+        }
+        if (digits == 0 || digits > 17) {
+            return toCentPerKWh(priceAmount.toString()).unscaledValue().longValueExact();
+        }
+        scale = Math.max(scale, 0);
+        long price = divideHalfUp(unscaled, 10); // divide by ten, keeping the scale
+        if (scale < 2) {
+            for (int i = scale; i < 2; i++) {
+                price *= 10;
+            }
+        } else if (scale > 2) {
+            long divisor = 1;
+            for (int i = 2; i < scale; i++) {
+                divisor *= 10;
+            }
+            price = divideHalfUp(price, divisor);
+        }
+        return negative ? -price : price;
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        return (dividend % divisor) * 2 >= divisor ? quotient + 1 : quotient;
+    }
+
+}
@@ -1,24 +1,19 @@
 package entsoe;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 /**
  * Utility functions.
  */
 public class Utils {
 
-    private static final double GERMAN_TAX = 1.19d;
-
-    private static final double TRANSNET_NET_FEE_PER_KWH = 15.39d;
-
     /**
-     * Gross price example calculation for TransnetBW (Germany)
+     * Gross price example calculation for TransnetBW (Germany). See {@link TariffModel#TRANSNET_BW}.
      * @param spotPrice the spot price in cent/kWh
      * @return The estimated Gross Price for transnetBW customers
      */
     public static BigDecimal getTransnetBWGrossPrice(BigDecimal spotPrice) {
-        return BigDecimal.valueOf(TRANSNET_NET_FEE_PER_KWH + spotPrice.doubleValue() * GERMAN_TAX).setScale(2, RoundingMode.HALF_UP);
+        return TariffModel.TRANSNET_BW.getGrossPrice(spotPrice);
     }
 
     /**
@@ -28,7 +23,7 @@ public class Utils {
      * @return the padded number
      */
     public static String padIntegerWithZeros(int number, int minWidth) {
-        return String.format("%0" + minWidth + "d", number);
+        return pad(number, minWidth, '0');
     }
 
     /**
@@ -38,7 +33,18 @@ public class Utils {
      * @return the padded number
      */
     public static String padIntegerWithSpaces(int number, int minWidth) {
-        return String.format("%" + minWidth + "d", number);
+        return pad(number, minWidth, ' ');
+    }
+
+    private static String pad(int number, int minWidth, char padding) {
+        if (number < 0) {
+            return String.format(padding == '0' ? "%0" + minWidth + "d" : "%" + minWidth + "d", number);
+        }
+        String digits = Integer.toString(number);
+        if (digits.length() >= minWidth) {
+            return digits;
+        }
+        return String.valueOf(padding).repeat(minWidth - digits.length()) + digits;
     }
 
 
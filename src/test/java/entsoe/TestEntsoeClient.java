@@ -3,15 +3,47 @@ package entsoe;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 class TestEntsoeClient {
 
@@ -46,6 +78,602 @@ class TestEntsoeClient {
         Assertions.assertTrue(map.containsKey(new EntsoeDate(zd2)));
     }
 
+    @Test
+    void testEntsoeDateFormat() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+        ZonedDateTime date = ZonedDateTime.of(1899, 12, 31, 0, 0, 0, 0, EntsoeDate.UTC_ZONE);
+        for (int i = 0; i < 30_000; i++) {
+            date = date.plusMinutes(15 + 7L * 24 * 60);
+            String formatted = formatter.format(date);
+            EntsoeDate entsoeDate = EntsoeDate.fromENTSOEDateString(formatted);
+            Assertions.assertEquals(new EntsoeDate(date), entsoeDate);
+            Assertions.assertEquals(date, entsoeDate.utcDate());
+            Assertions.assertEquals(formatted, entsoeDate.getEntsoeDateTime());
+            Assertions.assertEquals(formatted.substring(0, 8), entsoeDate.getEntsoeDate());
+        }
+        ZonedDateTime berlin = ZonedDateTime.of(2023, 10, 29, 2, 30, 0, 0, ZoneId.of("Europe/Berlin"));
+        EntsoeDate entsoeDate = new EntsoeDate(berlin);
+        Assertions.assertEquals("202310290230", entsoeDate.getEntsoeDateTime());
+        Assertions.assertEquals("2023-10-29 02:30", entsoeDate.toPrettyUTCString());
+        Assertions.assertEquals(berlin, entsoeDate.utcDate());
+        EntsoeDate utc = new EntsoeDate(berlin.withZoneSameInstant(EntsoeDate.UTC_ZONE));
+        Assertions.assertEquals(0, utc.compareTo(entsoeDate));
+        Assertions.assertEquals("202310290030", utc.getEntsoeDateTime());
+        Assertions.assertTrue(EntsoeDate.fromENTSOEDateString("202301010815").compareTo(EntsoeDate.fromENTSOEDateString("202301010830")) < 0);
+        Assertions.assertEquals(EntsoeDate.fromENTSOEDateString("202301010000"), EntsoeDate.fromENTSOEDateString("20230101"));
+        Assertions.assertThrows(DateTimeException.class, () -> EntsoeDate.fromENTSOEDateString("202302290000"));
+        Assertions.assertThrows(DateTimeException.class, () -> EntsoeDate.fromENTSOEDateString("202313010000"));
+        Assertions.assertThrows(NumberFormatException.class, () -> EntsoeDate.fromENTSOEDateString("2023-1-01000"));
+    }
+
+    @Test
+    void testParser() throws IOException {
+        for (EntsoeResolution resolution : EntsoeResolution.values()) {
+            TreeMap<EntsoeDate, BigDecimal> stax = new TreeMap<>();
+            try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+                new StaxTimeSeriesParser().parse(in, resolution, stax);
+            }
+            TreeMap<EntsoeDate, BigDecimal> dom = new TreeMap<>();
+            try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+                new DomTimeSeriesParser().parse(in, resolution, dom);
+            }
+            Assertions.assertEquals(dom, stax);
+            if (resolution == EntsoeResolution.PT30M) {
+                Assertions.assertTrue(stax.isEmpty()); // not in the document
+                continue;
+            }
+            Assertions.assertEquals(resolution == EntsoeResolution.PT60M ? 24 : 96, stax.size());
+            Assertions.assertEquals(0, EntsoeDate.fromENTSOEDateString("202212312300").compareTo(stax.firstKey()));
+        }
+        TreeMap<EntsoeDate, BigDecimal> timeSeries = new TreeMap<>();
+        try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+            new StaxTimeSeriesParser().parse(in, EntsoeResolution.PT60M, timeSeries);
+        }
+        Assertions.assertEquals(new BigDecimal("-0.11"), timeSeries.get(EntsoeDate.fromENTSOEDateString("202301010700")));
+    }
+
+    @Test
+    void testResample() throws IOException {
+        PriceSeries quarterHours;
+        try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+            quarterHours = new StaxTimeSeriesParser().parse(in, EntsoeResolution.PT15M);
+        }
+        PriceSeries hours = quarterHours.resample(EntsoeResolution.PT60M, PriceSeries.Aggregation.MEAN);
+        PriceSeries min = quarterHours.resample(EntsoeResolution.PT60M, PriceSeries.Aggregation.MIN);
+        PriceSeries max = quarterHours.resample(EntsoeResolution.PT60M, PriceSeries.Aggregation.MAX);
+        Assertions.assertEquals(24, hours.size());
+        Assertions.assertEquals(quarterHours.getStartEpochMinute(), hours.getStartEpochMinute());
+        for (int i = 0; i < hours.size(); i++) {
+            BigDecimal sum = BigDecimal.ZERO;
+            long lowest = Long.MAX_VALUE;
+            long highest = Long.MIN_VALUE;
+            for (int j = 4 * i; j < 4 * i + 4; j++) {
+                sum = sum.add(BigDecimal.valueOf(quarterHours.getPrice(j)));
+                lowest = Math.min(lowest, quarterHours.getPrice(j));
+                highest = Math.max(highest, quarterHours.getPrice(j));
+            }
+            Assertions.assertEquals(sum.divide(BigDecimal.valueOf(4), 0, RoundingMode.HALF_UP).longValueExact(), hours.getPrice(i));
+            Assertions.assertEquals(lowest, min.getPrice(i));
+            Assertions.assertEquals(highest, max.getPrice(i));
+        }
+        PriceSeries halfHours = quarterHours.resample(EntsoeResolution.PT30M, PriceSeries.Aggregation.MEAN);
+        Assertions.assertEquals(48, halfHours.size());
+        Assertions.assertEquals(min, quarterHours.resample(EntsoeResolution.PT30M, PriceSeries.Aggregation.MIN)
+                .resample(EntsoeResolution.PT60M, PriceSeries.Aggregation.MIN));
+        PriceSeries upsampled = hours.resample(EntsoeResolution.PT15M, PriceSeries.Aggregation.MEAN);
+        Assertions.assertEquals(96, upsampled.size());
+        for (int i = 0; i < upsampled.size(); i++) {
+            Assertions.assertEquals(hours.getPrice(i / 4), upsampled.getPrice(i));
+        }
+        Assertions.assertSame(hours, hours.resample(EntsoeResolution.PT60M, PriceSeries.Aggregation.MAX));
+
+        // rounding half away from zero, missing slots, alignment
+        PriceSeries series = new PriceSeries(30, EntsoeResolution.PT15M, new long[]{-1, -2, PriceSeries.MISSING, PriceSeries.MISSING, PriceSeries.MISSING, PriceSeries.MISSING, 1, 2});
+        PriceSeries resampled = series.resample(EntsoeResolution.PT60M, PriceSeries.Aggregation.MEAN);
+        Assertions.assertEquals(0, resampled.getStartEpochMinute());
+        Assertions.assertArrayEquals(new long[]{-2, PriceSeries.MISSING, 2}, resampled.toArray());
+        resampled = series.resampleWeighted(EntsoeResolution.PT60M, new long[]{3, 1, 1, 1, 1, 1, 0, 5});
+        Assertions.assertArrayEquals(new long[]{-1, PriceSeries.MISSING, 2}, resampled.toArray());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> series.resampleWeighted(EntsoeResolution.PT60M, new long[1]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> series.resampleWeighted(EntsoeResolution.PT15M, new long[0]));
+
+        // conversion while parsing, the native resolution wins
+        for (EntsoeResolution resolution : EntsoeResolution.values()) {
+            PriceSeries.Builder builder = new PriceSeries.Builder(resolution);
+            ResolutionConverter converter = new ResolutionConverter(resolution, PriceSeries.Aggregation.MEAN, builder);
+            try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+                new StaxTimeSeriesParser().parseAll(in, converter);
+            }
+            converter.finish();
+            PriceSeries expected;
+            try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+                expected = resolution == EntsoeResolution.PT30M ? halfHours : new StaxTimeSeriesParser().parse(in, resolution);
+            }
+            Assertions.assertEquals(expected, builder.build());
+        }
+    }
+
+    @Test
+    void testMixedResolutions() throws IOException {
+        // the hours before the switch to quarter hours are converted, the quarter hours after it are kept
+        long start = EntsoeDate.fromENTSOEDateString("202509292200").epochMinute();
+        long[] quarterHours = new long[192];
+        Arrays.fill(quarterHours, 0, 48, 1000);
+        Arrays.fill(quarterHours, 48, 96, 1200);
+        Arrays.fill(quarterHours, 96, 98, 800);
+        Arrays.fill(quarterHours, 98, 144, 900);
+        Arrays.fill(quarterHours, 144, 192, 700);
+        long[] hours = new long[48];
+        Arrays.fill(hours, 0, 12, 1000);
+        Arrays.fill(hours, 12, 24, 1200);
+        hours[24] = 850;
+        Arrays.fill(hours, 25, 36, 900);
+        Arrays.fill(hours, 36, 48, 700);
+        for (TimeSeriesParser parser : List.of(new StaxTimeSeriesParser(), new DomTimeSeriesParser())) {
+            for (EntsoeResolution resolution : List.of(EntsoeResolution.PT15M, EntsoeResolution.PT60M)) {
+                PriceSeries.Builder builder = new PriceSeries.Builder(resolution);
+                ResolutionConverter converter = new ResolutionConverter(resolution, PriceSeries.Aggregation.MEAN, builder);
+                try (InputStream in = getFixture("A44_DE_LU_20250930_mixed.xml")) {
+                    parser.parseAll(in, converter);
+                }
+                converter.finish();
+                PriceSeries priceSeries = builder.build();
+                Assertions.assertEquals(start, priceSeries.getStartEpochMinute());
+                Assertions.assertArrayEquals(resolution == EntsoeResolution.PT15M ? quarterHours : hours, priceSeries.toArray());
+            }
+        }
+    }
+
+    @Test
+    void testCurveTypeA03() throws IOException {
+        for (TimeSeriesParser parser : List.of(new StaxTimeSeriesParser(), new DomTimeSeriesParser())) {
+            PriceSeries priceSeries;
+            try (InputStream in = getFixture("A44_DE_LU_20230101_A03.xml")) {
+                priceSeries = parser.parse(in, EntsoeResolution.PT15M);
+            }
+            Assertions.assertEquals(96, priceSeries.size());
+            Assertions.assertEquals(EntsoeDate.fromENTSOEDateString("202212312300").epochMinute(), priceSeries.getStartEpochMinute());
+            long[] prices = priceSeries.toArray();
+            Assertions.assertArrayEquals(new long[]{500, 480, 480, 480, 480, 400, -50, -50}, Arrays.copyOf(prices, 8));
+            Assertions.assertEquals(-50, prices[88]);
+            Assertions.assertEquals(600, prices[89]);
+            Assertions.assertEquals(600, prices[95]);
+
+            RunLengthPriceSeries runs = RunLengthPriceSeries.of(priceSeries);
+            Assertions.assertEquals(5, runs.getRunCount());
+            Assertions.assertEquals(96, runs.size());
+            Assertions.assertEquals(priceSeries, runs.toPriceSeries());
+            Assertions.assertEquals(priceSeries.getEndEpochMinute(), runs.getEndEpochMinute());
+            for (int i = 0; i < priceSeries.size(); i++) {
+                Assertions.assertEquals(priceSeries.getPrice(i), runs.getPrice(priceSeries.getEpochMinute(i) + 7));
+            }
+            Assertions.assertEquals(PriceSeries.MISSING, runs.getPrice(priceSeries.getEndEpochMinute()));
+            Assertions.assertEquals(PriceSeries.MISSING, runs.getPrice(priceSeries.getStartEpochMinute() - 1));
+            PriceSeries.Builder builder = new PriceSeries.Builder(EntsoeResolution.PT15M);
+            runs.forEach(builder);
+            Assertions.assertEquals(priceSeries, builder.build());
+            List<Long> runStarts = new ArrayList<>();
+            runs.forEachRun((start, end, price) -> {
+                Assertions.assertEquals(price, priceSeries.getPrice(priceSeries.indexOf(end - 1)));
+                runStarts.add(start);
+            });
+            Assertions.assertEquals(List.of(0L, 15L, 75L, 90L, 1335L), runStarts.stream().map(m -> m - priceSeries.getStartEpochMinute()).toList());
+        }
+        RunLengthPriceSeries gaps = RunLengthPriceSeries.of(new PriceSeries(0, EntsoeResolution.PT60M, new long[]{1, PriceSeries.MISSING, PriceSeries.MISSING, 1}));
+        Assertions.assertEquals(3, gaps.getRunCount());
+        long[] count = new long[1];
+        gaps.forEach((epochMinute, price) -> count[0]++);
+        Assertions.assertEquals(2, count[0]);
+        Assertions.assertEquals(0, RunLengthPriceSeries.of(new PriceSeries(0, EntsoeResolution.PT60M, new long[0])).size());
+    }
+
+    @Test
+    void testPriceAnalytics() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            long[] prices = new long[1 + random.nextInt(120)];
+            for (int i = 0; i < prices.length; i++) {
+                prices[i] = random.nextInt(10) == 0 ? PriceSeries.MISSING : random.nextInt(2000) - 500;
+            }
+            PriceSeries series = new PriceSeries(27_000_000, EntsoeResolution.PT15M, prices);
+            int slots = 1 + random.nextInt(8);
+            Duration duration = Duration.ofMinutes(15L * slots);
+
+            // cheapest window against brute force
+            long bestSum = Long.MAX_VALUE;
+            int best = -1;
+            for (int first = 0; first + slots <= prices.length; first++) {
+                long sum = 0;
+                boolean complete = true;
+                for (int j = first; j < first + slots; j++) {
+                    complete &= prices[j] != PriceSeries.MISSING;
+                    sum += prices[j];
+                }
+                if (complete && sum < bestSum) {
+                    bestSum = sum;
+                    best = first;
+                }
+            }
+            PriceRange window = PriceAnalytics.cheapestWindow(series, duration);
+            if (best < 0) {
+                Assertions.assertNull(window);
+            } else {
+                Assertions.assertEquals(series.getEpochMinute(best), window.start().epochMinute());
+                Assertions.assertEquals(duration, window.getDuration());
+                Assertions.assertEquals(BigDecimal.valueOf(bestSum).divide(BigDecimal.valueOf(slots), 0, RoundingMode.HALF_UP).longValueExact(), window.averagePrice());
+            }
+
+            // sliding minimum against brute force
+            PriceSeries minimum = PriceAnalytics.slidingMinimum(series, duration);
+            Assertions.assertEquals(Math.max(prices.length - slots + 1, 0), minimum.size());
+            for (int first = 0; first < minimum.size(); first++) {
+                long min = PriceSeries.MISSING;
+                for (int j = first; j < first + slots; j++) {
+                    if (prices[j] != PriceSeries.MISSING && (min == PriceSeries.MISSING || prices[j] < min)) {
+                        min = prices[j];
+                    }
+                }
+                Assertions.assertEquals(min, minimum.getPrice(first));
+            }
+
+            // top k against sorting
+            int k = random.nextInt(20);
+            List<Integer> indices = new ArrayList<>();
+            for (int i = 0; i < prices.length; i++) {
+                if (prices[i] != PriceSeries.MISSING) {
+                    indices.add(i);
+                }
+            }
+            indices.sort(Comparator.comparingLong((Integer i) -> prices[i]).thenComparing(i -> i));
+            Set<Long> expected = new HashSet<>();
+            for (int i = 0; i < Math.min(k, indices.size()); i++) {
+                expected.add(series.getEpochMinute(indices.get(i)));
+            }
+            Set<Long> actual = new HashSet<>();
+            for (PriceRange range : PriceAnalytics.cheapestSlots(series, k)) {
+                for (long m = range.start().epochMinute(); m < range.end().epochMinute(); m += 15) {
+                    actual.add(m);
+                }
+            }
+            Assertions.assertEquals(expected, actual);
+        }
+
+        PriceSeries series = new PriceSeries(0, EntsoeResolution.PT60M, new long[]{500, 100, 120, PriceSeries.MISSING, 90, 80, 700, 110});
+        Assertions.assertEquals(new PriceRange(PriceSeries.toEntsoeDate(240), PriceSeries.toEntsoeDate(360), 85),
+                PriceAnalytics.cheapestWindow(series, Duration.ofHours(2)));
+        Assertions.assertEquals(new PriceRange(PriceSeries.toEntsoeDate(60), PriceSeries.toEntsoeDate(180), 110),
+                PriceAnalytics.cheapestWindow(series, Duration.ofHours(2), null, PriceSeries.toEntsoeDate(200)));
+        Assertions.assertNull(PriceAnalytics.cheapestWindow(series, Duration.ofHours(3), PriceSeries.toEntsoeDate(30), PriceSeries.toEntsoeDate(300)));
+        Assertions.assertEquals(List.of(
+                        new PriceRange(PriceSeries.toEntsoeDate(60), PriceSeries.toEntsoeDate(120), 100),
+                        new PriceRange(PriceSeries.toEntsoeDate(240), PriceSeries.toEntsoeDate(360), 85)),
+                PriceAnalytics.cheapestSlots(series, 3));
+        Assertions.assertEquals(List.of(
+                        new PriceRange(PriceSeries.toEntsoeDate(60), PriceSeries.toEntsoeDate(180), 110),
+                        new PriceRange(PriceSeries.toEntsoeDate(240), PriceSeries.toEntsoeDate(360), 85),
+                        new PriceRange(PriceSeries.toEntsoeDate(420), PriceSeries.toEntsoeDate(480), 110)),
+                PriceAnalytics.runsAtOrBelow(series, 120));
+        Assertions.assertEquals(List.of(
+                        new PriceRange(PriceSeries.toEntsoeDate(0), PriceSeries.toEntsoeDate(60), 500),
+                        new PriceRange(PriceSeries.toEntsoeDate(360), PriceSeries.toEntsoeDate(420), 700)),
+                PriceAnalytics.runsAtOrAbove(series, 500));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PriceAnalytics.cheapestWindow(series, Duration.ofMinutes(90)));
+        Assertions.assertTrue(PriceAnalytics.cheapestSlots(series, 0).isEmpty());
+    }
+
+    @Test
+    void testRollupIndex() {
+        Random random = new Random(7);
+        long start = new EntsoeDate(NEW_YEAR_2023.minusHours(1)).epochMinute(); // 2023-01-01 in Europe/Berlin
+        long[] prices = new long[(31 + 28 + 31) * 24 - 1]; // the end of March has one hour less
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = random.nextInt(20) == 0 ? PriceSeries.MISSING : random.nextInt(40_000) - 5_000;
+        }
+        RollupIndex index = new RollupIndex();
+        // add January and the rest in two parts, as fetched
+        index.add(BiddingZone.DE_LU, new PriceSeries(start, EntsoeResolution.PT60M, Arrays.copyOf(prices, 31 * 24)));
+        index.add(BiddingZone.DE_LU, new PriceSeries(start + 31 * 24 * 60, EntsoeResolution.PT60M, Arrays.copyOfRange(prices, 31 * 24, prices.length)));
+        Assertions.assertEquals(90, index.getDailyStatistics(BiddingZone.DE_LU, EntsoeResolution.PT60M,
+                LocalDate.of(2022, 1, 1), LocalDate.of(2024, 1, 1)).size());
+        Assertions.assertEquals(3, index.getMonthlyStatistics(BiddingZone.DE_LU, EntsoeResolution.PT60M,
+                YearMonth.of(2023, 1), YearMonth.of(2023, 12)).size());
+        Assertions.assertNull(index.getStatistics(BiddingZone.DE_LU, EntsoeResolution.PT15M, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 3, 31)));
+        Assertions.assertNull(index.getStatistics(BiddingZone.DE_LU, EntsoeResolution.PT60M, LocalDate.of(2023, 4, 1), LocalDate.of(2023, 4, 30)));
+
+        LocalDate[][] ranges = {
+                {LocalDate.of(2023, 1, 1), LocalDate.of(2023, 3, 31)},
+                {LocalDate.of(2022, 12, 1), LocalDate.of(2023, 2, 15)},
+                {LocalDate.of(2023, 1, 20), LocalDate.of(2023, 3, 2)},
+                {LocalDate.of(2023, 2, 1), LocalDate.of(2023, 2, 28)},
+                {LocalDate.of(2023, 3, 26), LocalDate.of(2023, 3, 26)}};
+        for (LocalDate[] range : ranges) {
+            int from = (int) (range[0].atStartOfDay(BiddingZone.DE_LU.getZoneId()).toEpochSecond() / 60 - start) / 60;
+            int to = (int) (range[1].plusDays(1).atStartOfDay(BiddingZone.DE_LU.getZoneId()).toEpochSecond() / 60 - start) / 60;
+            long[] expected = Arrays.stream(Arrays.copyOfRange(prices, Math.max(from, 0), Math.min(to, prices.length)))
+                    .filter(price -> price != PriceSeries.MISSING).sorted().toArray();
+            PriceStatistics statistics = index.getStatistics(BiddingZone.DE_LU, EntsoeResolution.PT60M, range[0], range[1]);
+            Assertions.assertEquals(expected.length, statistics.getCount(), Arrays.toString(range));
+            Assertions.assertEquals(Arrays.stream(expected).sum(), statistics.getSum());
+            Assertions.assertEquals(expected[0], statistics.getMin());
+            Assertions.assertEquals(expected[expected.length - 1], statistics.getMax());
+            Assertions.assertEquals(expected[0], statistics.getQuantile(0));
+            Assertions.assertEquals(expected[expected.length - 1], statistics.getQuantile(1));
+            for (double quantile : new double[]{0.05, 0.25, 0.5, 0.75, 0.95}) {
+                long exact = expected[(int) Math.ceil(quantile * expected.length) - 1];
+                long estimate = statistics.getQuantile(quantile);
+                Assertions.assertTrue(Math.abs(estimate - exact) <= Math.max(Math.abs(exact) * PriceStatistics.RELATIVE_ACCURACY, 0.5),
+                        quantile + ": " + estimate + " != " + exact);
+            }
+        }
+
+        // a day that is fetched again only fills its gaps, the indexed slots are not counted twice
+        LocalDate day = LocalDate.of(2023, 1, 10);
+        long dayStart = day.atStartOfDay(BiddingZone.DE_LU.getZoneId()).toEpochSecond() / 60;
+        int offset = (int) (dayStart - start) / 60;
+        long[] indexed = Arrays.copyOfRange(prices, offset, offset + 24);
+        long gaps = Arrays.stream(indexed).filter(price -> price == PriceSeries.MISSING).count();
+        Assertions.assertTrue(gaps > 0);
+        long sum = Arrays.stream(indexed).filter(price -> price != PriceSeries.MISSING).sum();
+        long[] flat = new long[24];
+        Arrays.fill(flat, 1234);
+        index.add(BiddingZone.DE_LU, new PriceSeries(dayStart, EntsoeResolution.PT60M, flat));
+        PriceStatistics statistics = index.getStatistics(BiddingZone.DE_LU, EntsoeResolution.PT60M, day, day);
+        Assertions.assertEquals(24, statistics.getCount());
+        Assertions.assertEquals(sum + gaps * 1234, statistics.getSum());
+        index.add(BiddingZone.DE_LU, new PriceSeries(dayStart + 6 * 60, EntsoeResolution.PT60M, Arrays.copyOf(flat, 12)));
+        Assertions.assertEquals(24, index.getStatistics(BiddingZone.DE_LU, EntsoeResolution.PT60M, day, day).getCount());
+        Assertions.assertEquals(index.getStatistics(BiddingZone.DE_LU, EntsoeResolution.PT60M, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31)).getSum(),
+                index.getMonthlyStatistics(BiddingZone.DE_LU, EntsoeResolution.PT60M, YearMonth.of(2023, 1), YearMonth.of(2023, 1)).get(YearMonth.of(2023, 1)).getSum());
+
+        // quarter hours of a day of 25 hours
+        long octoberStart = LocalDate.of(2023, 10, 29).atStartOfDay(BiddingZone.DE_LU.getZoneId()).toEpochSecond() / 60;
+        long[] quarterHours = new long[100];
+        Arrays.fill(quarterHours, 500);
+        index.add(BiddingZone.DE_LU, new PriceSeries(octoberStart, EntsoeResolution.PT15M, Arrays.copyOfRange(quarterHours, 0, 60)));
+        index.add(BiddingZone.DE_LU, new PriceSeries(octoberStart + 40 * 15, EntsoeResolution.PT15M, Arrays.copyOfRange(quarterHours, 40, 100)));
+        Assertions.assertEquals(100, index.getStatistics(BiddingZone.DE_LU, EntsoeResolution.PT15M,
+                LocalDate.of(2023, 10, 29), LocalDate.of(2023, 10, 29)).getCount());
+    }
+
+    @Test
+    void testPriceSeries() throws IOException {
+        TreeMap<EntsoeDate, BigDecimal> timeSeries = new TreeMap<>();
+        PriceSeries priceSeries;
+        try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+            new StaxTimeSeriesParser().parse(in, EntsoeResolution.PT15M, timeSeries);
+        }
+        try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+            priceSeries = new StaxTimeSeriesParser().parse(in, EntsoeResolution.PT15M);
+        }
+        Assertions.assertEquals(96, priceSeries.size());
+        Assertions.assertEquals(timeSeries, priceSeries.toTimeSeries());
+        Assertions.assertEquals(priceSeries, PriceSeries.of(timeSeries, EntsoeResolution.PT15M));
+        for (var entry : timeSeries.entrySet()) {
+            Assertions.assertEquals(entry.getValue(), priceSeries.get(entry.getKey()));
+        }
+        EntsoeDate date = EntsoeDate.fromENTSOEDateString("202301010815");
+        Assertions.assertEquals(37, priceSeries.indexOf(date));
+        Assertions.assertEquals(37, priceSeries.indexOf(EntsoeDate.fromENTSOEDateString("202301010829")));
+        Assertions.assertEquals(0, date.compareTo(priceSeries.getDate(37)));
+        Assertions.assertEquals(-1, priceSeries.indexOf(EntsoeDate.fromENTSOEDateString("202301012300")));
+        Assertions.assertEquals(PriceSeries.MISSING, priceSeries.getPrice(EntsoeDate.fromENTSOEDateString("202212312245")));
+        Assertions.assertNull(priceSeries.get(EntsoeDate.fromENTSOEDateString("202212312245")));
+
+        PriceSeries gap = new PriceSeries(priceSeries.getStartEpochMinute(), EntsoeResolution.PT60M, new long[]{100, PriceSeries.MISSING, -250});
+        Assertions.assertEquals(2, gap.toTimeSeries().size());
+        Assertions.assertEquals(new BigDecimal("-2.50"), gap.get(gap.getDate(2)));
+    }
+
+    @Test
+    void testFixedPointPrice() {
+        Random random = new Random(42);
+        List<String> values = new ArrayList<>(List.of("0", "5", "-5", "15", "-15", "0.05", "-0.05", "123.45", "-1.09",
+                "99.995", "-99.995", "100.0", "3000", " 42.1 ", "+7.25", "0.000", "12.3456789"));
+        for (int i = 0; i < 10000; i++) {
+            int scale = random.nextInt(5);
+            values.add(BigDecimal.valueOf(random.nextInt(2000000) - 1000000, scale).toPlainString());
+        }
+        for (String value : values) {
+            Assertions.assertEquals(TimeSeriesParser.toCentPerKWh(value).unscaledValue().longValueExact(), TimeSeriesParser.toFixedPoint(value), value);
+        }
+    }
+
+    static InputStream getFixture(String name) {
+        return TestEntsoeClient.class.getResourceAsStream(name);
+    }
+
+    @Test
+    void testTimeSeriesCache() throws IOException {
+        AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2023-01-01T10:00:00Z"));
+        Clock clock = getClock(now);
+        TimeSeriesCache cache = new TimeSeriesCache(2, Duration.ofMinutes(5), clock);
+        TreeMap<EntsoeDate, BigDecimal> timeSeries = new TreeMap<>();
+        try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+            new StaxTimeSeriesParser().parse(in, EntsoeResolution.PT60M, timeSeries);
+        }
+        AtomicLong loads = new AtomicLong();
+        CompletableFuture<TreeMap<EntsoeDate, BigDecimal>> pending = new CompletableFuture<>();
+        TimeSeriesCache.Key key = TimeSeriesCache.Key.of(EntsoeRequest.of(BiddingZone.DE_LU, new EntsoeDate(NEW_YEAR_2023)), EntsoeResolution.PT60M);
+        var future1 = cache.get(key, () -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        boolean[] hit = new boolean[1];
+        var future2 = cache.get(key, () -> {
+            loads.incrementAndGet();
+            return pending;
+        }, hit);
+        Assertions.assertFalse(hit[0]); // waits for the first load
+        pending.complete(timeSeries);
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(timeSeries, future1.join());
+        Assertions.assertEquals(timeSeries, future2.join());
+        future1.join().clear();
+        Assertions.assertEquals(24, cache.getIfPresent(key).size());
+        now.set(now.get().plus(Duration.ofDays(1000)));
+        Assertions.assertEquals(24, cache.getIfPresent(key).size());
+
+        // not yet published: cached until 12:45 CET of the day before
+        now.set(Instant.parse("2023-01-01T10:00:00Z"));
+        TimeSeriesCache.Key tomorrow = TimeSeriesCache.Key.of(EntsoeRequest.of(BiddingZone.DE_LU, new EntsoeDate(NEW_YEAR_2023.plusDays(1))), EntsoeResolution.PT60M);
+        cache.put(tomorrow, new TreeMap<>());
+        now.set(Instant.parse("2023-01-01T11:40:00Z"));
+        Assertions.assertNotNull(cache.getIfPresent(tomorrow));
+        now.set(Instant.parse("2023-01-01T11:45:00Z"));
+        Assertions.assertNull(cache.getIfPresent(tomorrow));
+        cache.put(tomorrow, new TreeMap<>());
+        now.set(Instant.parse("2023-01-01T11:49:00Z"));
+        Assertions.assertNotNull(cache.getIfPresent(tomorrow));
+        now.set(Instant.parse("2023-01-01T11:50:00Z"));
+        Assertions.assertNull(cache.getIfPresent(tomorrow));
+        cache.get(key, () -> pending, hit);
+        Assertions.assertTrue(hit[0]);
+
+        // a partial day is cached until the publication time of its last delivery day, afterwards indefinitely
+        now.set(Instant.parse("2022-12-31T10:00:00Z"));
+        TreeMap<EntsoeDate, BigDecimal> partial = new TreeMap<>(timeSeries.headMap(PriceSeries.toEntsoeDate(
+                EntsoeDate.fromENTSOEDateString("202301011200").epochMinute())));
+        cache.put(key, partial);
+        now.set(Instant.parse("2022-12-31T11:40:00Z"));
+        Assertions.assertEquals(13, cache.getIfPresent(key).size());
+        now.set(Instant.parse("2022-12-31T11:45:00Z"));
+        Assertions.assertNull(cache.getIfPresent(key));
+        cache.put(key, partial);
+        now.set(now.get().plus(Duration.ofDays(1000)));
+        Assertions.assertEquals(13, cache.getIfPresent(key).size());
+    }
+
+    @Test
+    void testPricePublicationWatcher() throws IOException {
+        AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2023-01-01T06:00:00Z"));
+        TreeMap<EntsoeDate, BigDecimal> timeSeries = new TreeMap<>();
+        try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+            new StaxTimeSeriesParser().parse(in, EntsoeResolution.PT60M, timeSeries);
+        }
+        Set<LocalDate> published = new HashSet<>();
+        List<LocalDate> requested = new ArrayList<>();
+        PricePublicationWatcher watcher = new PricePublicationWatcher((request, resolution) -> {
+            LocalDate day = request.period().start().utcDate().toLocalDate();
+            requested.add(day);
+            return published.contains(day) ? timeSeries : new TreeMap<>();
+        }, BiddingZone.DE_LU, EntsoeResolution.PT60M, Duration.ofMinutes(1), Duration.ofMinutes(30), null, getClock(now));
+        List<LocalDate> events = new ArrayList<>();
+        watcher.addListener((day, prices) -> events.add(day));
+        published.add(LocalDate.of(2023, 1, 1));
+
+        // today is published, tomorrow is not: back off until 12:45 CET
+        Assertions.assertEquals(Duration.ofMinutes(1), watcher.poll());
+        Assertions.assertEquals(List.of(LocalDate.of(2023, 1, 1)), events);
+        Assertions.assertEquals(List.of(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 2)), requested);
+        Assertions.assertEquals(Duration.ofMinutes(2), watcher.poll());
+        Assertions.assertEquals(Duration.ofMinutes(4), watcher.poll());
+        Assertions.assertEquals(List.of(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 2), LocalDate.of(2023, 1, 2), LocalDate.of(2023, 1, 2)), requested);
+        for (int i = 0; i < 5; i++) {
+            watcher.poll();
+        }
+        Assertions.assertEquals(Duration.ofMinutes(30), watcher.poll());
+        now.set(Instant.parse("2023-01-01T11:30:00Z"));
+        Assertions.assertEquals(Duration.ofMinutes(15), watcher.poll());
+
+        // publication window: poll fast until tomorrow lands
+        now.set(Instant.parse("2023-01-01T11:45:00Z"));
+        Assertions.assertEquals(Duration.ofMinutes(1), watcher.poll());
+        Assertions.assertEquals(1, events.size());
+        published.add(LocalDate.of(2023, 1, 2));
+        now.set(Instant.parse("2023-01-01T11:50:00Z"));
+        Assertions.assertEquals(Duration.ofHours(23).plusMinutes(55), watcher.poll());
+        Assertions.assertEquals(List.of(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 2)), events);
+        Assertions.assertEquals(timeSeries, watcher.getTimeSeries()); // the same document is returned for both days
+
+        // nothing is requested again until the next day starts
+        int requests = requested.size();
+        Assertions.assertEquals(Duration.ofHours(23).plusMinutes(55), watcher.poll());
+        Assertions.assertEquals(requests, requested.size());
+        now.set(Instant.parse("2023-01-02T00:10:00Z"));
+        Assertions.assertTrue(watcher.poll().compareTo(Duration.ofMinutes(30)) <= 0);
+        Assertions.assertEquals(List.of(LocalDate.of(2023, 1, 3)), requested.subList(requests, requested.size()));
+        watcher.close();
+    }
+
+    private static Clock getClock(AtomicReference<Instant> now) {
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return EntsoeDate.UTC_ZONE;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        };
+    }
+
+    @Test
+    void testPriceStore(@TempDir Path directory) throws IOException {
+        TreeMap<EntsoeDate, BigDecimal> timeSeries = new TreeMap<>();
+        try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+            new StaxTimeSeriesParser().parse(in, EntsoeResolution.PT15M, timeSeries);
+        }
+        PriceStore priceStore = new PriceStore(directory);
+        LocalDate day = LocalDate.of(2023, 1, 1);
+        Assertions.assertNull(priceStore.read(BiddingZone.DE_LU, EntsoeResolution.PT15M, day));
+        priceStore.write(BiddingZone.DE_LU, EntsoeResolution.PT15M, timeSeries);
+        Assertions.assertEquals(timeSeries, priceStore.read(BiddingZone.DE_LU, EntsoeResolution.PT15M, day));
+        Assertions.assertNull(priceStore.read(BiddingZone.DE_LU, EntsoeResolution.PT60M, day));
+        Assertions.assertNull(priceStore.read(BiddingZone.DE_LU, EntsoeResolution.PT15M, day, day.plusDays(1)));
+        // the day is stored in the file of 2023, although it starts in 2022 in UTC
+        Assertions.assertTrue(Files.exists(directory.resolve("DE_LU_PT15M_2023.bin")));
+        PriceStore reopened = new PriceStore(directory);
+        TreeMap<EntsoeDate, BigDecimal> read = reopened.read(BiddingZone.DE_LU, EntsoeResolution.PT15M, day);
+        Assertions.assertEquals(timeSeries, read);
+        Assertions.assertEquals(timeSeries.firstEntry().getValue(), read.firstEntry().getValue());
+        Assertions.assertEquals(timeSeries.firstEntry().getValue().scale(), read.firstEntry().getValue().scale());
+        // the file lock of a write is released, so the other store can write the file
+        TreeMap<EntsoeDate, BigDecimal> changed = new TreeMap<>(timeSeries);
+        changed.put(changed.firstKey(), new BigDecimal("1.23"));
+        reopened.write(BiddingZone.DE_LU, EntsoeResolution.PT15M, changed);
+        priceStore.write(BiddingZone.DE_LU, EntsoeResolution.PT15M, changed);
+        Assertions.assertEquals(changed, priceStore.read(BiddingZone.DE_LU, EntsoeResolution.PT15M, day));
+
+        // all bidding zones store the market day, also if their local day differs
+        TreeMap<EntsoeDate, BigDecimal> marketDay = new TreeMap<>();
+        long start = Instant.parse("2022-12-31T23:00:00Z").getEpochSecond() / 60;
+        for (int hour = 0; hour < 24; hour++) {
+            marketDay.put(new EntsoeDate(start + hour * 60L, EntsoeDate.UTC_ZONE), new BigDecimal("1.00"));
+        }
+        for (BiddingZone zone : List.of(BiddingZone.FI, BiddingZone.PT)) {
+            priceStore.write(zone, EntsoeResolution.PT60M, marketDay);
+            Assertions.assertEquals(marketDay, priceStore.read(zone, EntsoeResolution.PT60M, day));
+            Assertions.assertNull(priceStore.read(zone, EntsoeResolution.PT60M, day.minusDays(1)));
+            Assertions.assertNull(priceStore.read(zone, EntsoeResolution.PT60M, day.plusDays(1)));
+        }
+        // a part of a day is not read as the day and adds to the stored prices
+        EntsoeDate noon = new EntsoeDate(start + 12 * 60, EntsoeDate.UTC_ZONE);
+        TreeMap<EntsoeDate, BigDecimal> firstHalf = new TreeMap<>(marketDay.headMap(noon));
+        TreeMap<EntsoeDate, BigDecimal> secondHalf = new TreeMap<>(marketDay.tailMap(noon));
+        priceStore.write(BiddingZone.AT, EntsoeResolution.PT60M, secondHalf);
+        Assertions.assertNull(priceStore.read(BiddingZone.AT, EntsoeResolution.PT60M, day));
+        priceStore.write(BiddingZone.AT, EntsoeResolution.PT60M, firstHalf);
+        Assertions.assertEquals(marketDay, priceStore.read(BiddingZone.AT, EntsoeResolution.PT60M, day));
+        priceStore.write(BiddingZone.AT, EntsoeResolution.PT60M, secondHalf);
+        Assertions.assertEquals(marketDay, priceStore.read(BiddingZone.AT, EntsoeResolution.PT60M, day));
+
+        // stores of the same directory in one process write concurrently
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            PriceStore store = new PriceStore(directory);
+            writes.add(CompletableFuture.runAsync(() -> store.write(BiddingZone.BE, EntsoeResolution.PT60M, marketDay)));
+        }
+        writes.forEach(CompletableFuture::join);
+        Assertions.assertEquals(marketDay, priceStore.read(BiddingZone.BE, EntsoeResolution.PT60M, day));
+    }
+
     @Test
     void testContructors() {
         System.out.println("Testing constructors");
@@ -63,6 +691,12 @@ class TestEntsoeClient {
                 System.out.println("Exception is expected (2)");
             }
         }
+        try (EntsoeClient entsoeClient = EntsoeClient.builder()
+                .securityToken("token")
+                .requestTimeout(Duration.ofSeconds(5))
+                .build()) {
+            Assertions.assertTrue(entsoeClient.getRequestURL(new EntsoeDate(NEW_YEAR_2023)).contains("securityToken=token&"));
+        }
     }
 
     @Test
@@ -134,6 +768,92 @@ class TestEntsoeClient {
         Assertions.assertEquals(24-9, timeSeries2.size());
     }
 
+    @Test
+    void testGetPT60MAsync() {
+        if (TOKEN==null) {
+            return; // skipTest
+        }
+        try (EntsoeClient entsoeClient = EntsoeClient.builder().securityToken(TOKEN).build()) {
+            var future1 = entsoeClient.getTimeSeriesAsync(new EntsoeDate(NEW_YEAR_2023), EntsoeResolution.PT60M);
+            var future2 = entsoeClient.getTimeSeriesAsync(new EntsoeDate(NEW_YEAR_2023.plusDays(1)), EntsoeResolution.PT60M);
+            Assertions.assertEquals(24, future1.join().size());
+            Assertions.assertEquals(24, future2.join().size());
+            Assertions.assertNotEquals(future1.join(), future2.join());
+        }
+    }
+
+    @Test
+    void testEntsoePeriod() {
+        EntsoePeriod period = new EntsoePeriod(EntsoeDate.fromENTSOEDateString("20210315"), EntsoeDate.fromENTSOEDateString("20230701"));
+        List<EntsoePeriod> periods = period.splitByYear();
+        Assertions.assertEquals(3, periods.size());
+        Assertions.assertEquals("202103150000", periods.get(0).periodStart().toString());
+        Assertions.assertEquals("202203142300", periods.get(0).periodEnd().toString());
+        Assertions.assertEquals("202203150000", periods.get(1).periodStart().toString());
+        Assertions.assertEquals("202307012300", periods.get(2).periodEnd().toString());
+        Assertions.assertEquals(1, EntsoePeriod.ofDay(new EntsoeDate(NEW_YEAR_2023)).splitByYear().size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new EntsoePeriod(new EntsoeDate(NEW_YEAR_2023), new EntsoeDate(NEW_YEAR_1900)));
+        try (EntsoeClient entsoeClient = new EntsoeClient("token")) {
+            Assertions.assertEquals(entsoeClient.getRequestURL(new EntsoeDate(NEW_YEAR_2023)), entsoeClient.getRequestURL(EntsoePeriod.ofDay(new EntsoeDate(NEW_YEAR_2023_9am))));
+        }
+    }
+
+    @Test
+    void testBiddingZone() {
+        Assertions.assertEquals(BiddingZone.DE_LU, BiddingZone.fromEic("10Y1001A1001A82H"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BiddingZone.fromEic("unknown"));
+        try (EntsoeClient entsoeClient = EntsoeClient.builder().securityToken("token").biddingZone(BiddingZone.AT).build()) {
+            Assertions.assertEquals("https://web-api.tp.entsoe.eu/api?securityToken=token&documentType=A44&in_Domain=10YAT-APG------L&out_Domain=10YAT-APG------L&periodStart=202301010000&periodEnd=202301012300",
+                    entsoeClient.getRequestURL(new EntsoeDate(NEW_YEAR_2023)));
+            Assertions.assertEquals("https://web-api.tp.entsoe.eu/api?securityToken=token&documentType=A44&in_Domain=10YFR-RTE------C&out_Domain=10YFR-RTE------C&periodStart=202301010000&periodEnd=202301032300",
+                    entsoeClient.getRequestURL(EntsoeRequest.of(BiddingZone.FR, new EntsoeDate(NEW_YEAR_2023), new EntsoeDate(NEW_YEAR_2023.plusDays(2)))));
+        }
+    }
+
+    @Test
+    void testGetBiddingZones() {
+        if (TOKEN==null) {
+            return; // skipTest
+        }
+        try (EntsoeClient entsoeClient = new EntsoeClient(TOKEN)) {
+            var timeSeries = entsoeClient.getTimeSeries(List.of(BiddingZone.DE_LU, BiddingZone.AT, BiddingZone.FR), new EntsoeDate(NEW_YEAR_2023), EntsoeResolution.PT60M);
+            Assertions.assertEquals(3, timeSeries.size());
+            Assertions.assertEquals(24, timeSeries.get(BiddingZone.AT).size());
+        }
+    }
+
+    @Test
+    void testGetRange() {
+        if (TOKEN==null) {
+            return; // skipTest
+        }
+        try (EntsoeClient entsoeClient = new EntsoeClient(TOKEN)) {
+            TreeMap<EntsoeDate, BigDecimal> timeSeries = entsoeClient.getTimeSeries(new EntsoeDate(NEW_YEAR_2023), new EntsoeDate(NEW_YEAR_2023.plusDays(6)), EntsoeResolution.PT60M);
+            Assertions.assertEquals(7 * 24, timeSeries.size());
+        }
+    }
+
+    @Test
+    void testFetch() {
+        if (TOKEN==null) {
+            return; // skipTest
+        }
+        try (EntsoeClient entsoeClient = new EntsoeClient(TOKEN)) {
+            EntsoeRequest request = EntsoeRequest.of(BiddingZone.DE_LU, new EntsoeDate(NEW_YEAR_2023), new EntsoeDate(NEW_YEAR_2023.plusDays(6)));
+            TreeMap<EntsoeDate, BigDecimal> timeSeries = entsoeClient.getTimeSeries(request, EntsoeResolution.PT60M);
+            long[] sum = new long[2];
+            entsoeClient.fetch(request, EntsoeResolution.PT60M, (epochMinute, price) -> {
+                sum[0]++;
+                sum[1] += price;
+            });
+            Assertions.assertEquals(timeSeries.size(), sum[0]);
+            Assertions.assertEquals(timeSeries.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add).movePointRight(2).longValueExact(), sum[1]);
+            PriceSeries.Builder builder = new PriceSeries.Builder(EntsoeResolution.PT60M);
+            entsoeClient.fetchAsync(request, EntsoeResolution.PT60M, builder).join();
+            Assertions.assertEquals(timeSeries, builder.build().toTimeSeries());
+        }
+    }
+
     @Test
     void testGetPT15M() {
         if (TOKEN==null) {
@@ -160,6 +880,63 @@ class TestEntsoeClient {
         Assertions.assertTrue(timeSeries2.containsKey(EntsoeDate.fromENTSOEDateString("202301012245")));
     }
 
+    @Test
+    void testTariffModel() {
+        Random random = new Random(7);
+        long[] prices = new long[1000];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = random.nextInt(100_000) - 20_000;
+        }
+        prices[3] = PriceSeries.MISSING;
+        PriceSeries spot = new PriceSeries(EntsoeDate.fromENTSOEDateString("20230101").epochMinute(), EntsoeResolution.PT15M, prices);
+        PriceSeries gross = TariffModel.TRANSNET_BW.apply(spot);
+        for (int i = 0; i < prices.length; i++) {
+            if (prices[i] == PriceSeries.MISSING) {
+                Assertions.assertEquals(PriceSeries.MISSING, gross.getPrice(i));
+                continue;
+            }
+            BigDecimal expected = new BigDecimal("15.39").add(BigDecimal.valueOf(prices[i], 2).multiply(new BigDecimal("1.19")))
+                    .setScale(2, RoundingMode.HALF_UP);
+            Assertions.assertEquals(expected, BigDecimal.valueOf(gross.getPrice(i), 2));
+            Assertions.assertEquals(expected, Utils.getTransnetBWGrossPrice(BigDecimal.valueOf(prices[i], 2)));
+        }
+        Assertions.assertEquals(new BigDecimal("15.26"), Utils.getTransnetBWGrossPrice(new BigDecimal("-0.11")));
+        Assertions.assertEquals(new BigDecimal("16.00"), Utils.getTransnetBWGrossPrice(new BigDecimal("0.5126")));
+        Assertions.assertEquals(new BigDecimal("14.78"), Utils.getTransnetBWGrossPrice(new BigDecimal("-0.5126"))); // -0.609994 rounds to -0.61
+
+        // time of use fees in local time and tariff versions
+        TariffModel winter = TariffModel.builder()
+                .vat(new BigDecimal("0.19"))
+                .netFee(new BigDecimal("8.00"))
+                .levy(new BigDecimal("2.00"))
+                .timeOfUseFee(LocalTime.of(17, 0), LocalTime.of(20, 0), new BigDecimal("5.00"))
+                .validity(null, LocalDate.of(2023, 6, 30))
+                .build();
+        TariffModel summer = TariffModel.builder()
+                .vat(new BigDecimal("0.07"))
+                .timeOfUseFee(LocalTime.of(22, 0), LocalTime.of(6, 0), new BigDecimal("-1.00"))
+                .validity(LocalDate.of(2023, 7, 1), null)
+                .build();
+        Assertions.assertThrows(IllegalStateException.class, () -> winter.getGrossPrice(BigDecimal.ONE));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TariffModel.builder().netFee(new BigDecimal("0.001")));
+        long june30 = EntsoeDate.fromENTSOEDateString("20230630").epochMinute();
+        PriceSeries series = new PriceSeries(june30, EntsoeResolution.PT60M, new long[48]);
+        gross = TariffModel.apply(series, List.of(winter, summer));
+        for (int hour = 0; hour < 48; hour++) {
+            long epochMinute = june30 + hour * 60L;
+            int localHour = (hour + 2) % 24; // CEST
+            boolean isWinter = hour < 22;  // 2023-07-01 00:00 CEST
+            long expected = isWinter
+                    ? (1000 + (localHour >= 17 && localHour < 20 ? 500 : 0)) * 119 / 100
+                    : (localHour >= 22 || localHour < 6 ? -107 : 0);
+            Assertions.assertEquals(expected, gross.getPrice(hour), "hour " + hour);
+            Assertions.assertEquals(isWinter, winter.isValid(epochMinute));
+            Assertions.assertEquals(expected, (isWinter ? winter : summer).getGrossPrice(epochMinute, 0));
+        }
+        Assertions.assertEquals(PriceSeries.MISSING, winter.apply(series).getPrice(47));
+        Assertions.assertEquals(PriceSeries.MISSING, winter.getGrossPrice(june30, PriceSeries.MISSING));
+    }
+
     @Test
     void testGrossPrice() {
         if (TOKEN==null) {
@@ -183,17 +960,457 @@ class TestEntsoeClient {
         AtomicLong counter = new AtomicLong(0);
         while(start.plus(Duration.of(20, ChronoUnit.SECONDS)).isAfter(Instant.now())) {
             System.out.println("wait for permit");
-            apiRateLimiter.acquireWait();
+            apiRateLimiter.acquire();
             System.out.println("permit received " + counter.incrementAndGet());
             //Thread.sleep(100);
         }
         Assertions.assertTrue(counter.get()<12);
     }
 
+    @Test
+    void testRequestLimiterTryAcquire() {
+        ApiRateLimiter apiRateLimiter = new ApiRateLimiter(
+                3, Duration.of(3, ChronoUnit.SECONDS),
+                Duration.ZERO);
+        long first = System.nanoTime();
+        Assertions.assertTrue(apiRateLimiter.tryAcquire());
+        // no burst: the permits are spread evenly over the duration
+        Assertions.assertFalse(apiRateLimiter.tryAcquire());
+        Assertions.assertFalse(apiRateLimiter.tryAcquire(Duration.ofMillis(100)));
+        Assertions.assertTrue(apiRateLimiter.tryAcquire(Duration.ofSeconds(2)));
+        Assertions.assertTrue(System.nanoTime() - first >= Duration.ofMillis(900).toNanos());
+        apiRateLimiter.acquire();
+        Assertions.assertFalse(apiRateLimiter.tryAcquire());
+        // the 4th permit comes no earlier than the duration after the 1st
+        apiRateLimiter.acquireAsync().join();
+        Assertions.assertTrue(System.nanoTime() - first >= Duration.ofSeconds(3).toNanos());
+    }
+
+    @Test
+    void testSharedRateLimiter(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("limiter");
+        // two limiters on the same file behave like limiters of two processes
+        ApiRateLimiter a = ApiRateLimiter.shared(file, 5, Duration.ofSeconds(30), Duration.ZERO);
+        ApiRateLimiter b = ApiRateLimiter.shared(file, 5, Duration.ofSeconds(30), Duration.ZERO);
+        Assertions.assertTrue(a.isShared());
+        Assertions.assertFalse(new ApiRateLimiter(5, Duration.ofSeconds(30), Duration.ZERO).isShared());
+        Assertions.assertTrue(a.tryAcquire());
+        // the next permit of either is 6 seconds away
+        Assertions.assertFalse(b.tryAcquire());
+        Assertions.assertFalse(a.tryAcquire());
+        Assertions.assertFalse(b.tryAcquire(Duration.ofMillis(500)));
+        Assertions.assertThrows(IllegalStateException.class, () -> ApiRateLimiter.shared(file, 6, Duration.ofSeconds(30), Duration.ZERO));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ApiRateLimiter.shared(file, 5, Duration.ofHours(2), Duration.ZERO));
+
+        Path pausedFile = file.resolveSibling("paused");
+        ApiRateLimiter c = ApiRateLimiter.shared(pausedFile, 100, Duration.ofSeconds(1), Duration.ZERO);
+        ApiRateLimiter d = ApiRateLimiter.shared(pausedFile, 100, Duration.ofSeconds(1), Duration.ZERO);
+        Assertions.assertTrue(d.tryAcquire());
+        c.pause(Duration.ofSeconds(10));
+        Assertions.assertFalse(d.tryAcquire());
+
+        ApiRateLimiter.State state = new ApiRateLimiter.State(1_700_000_000_123_000_000L, 1_700_000_000_000_000_000L);
+        Assertions.assertEquals(state, SharedStateSlot.decode(SharedStateSlot.encode(state)));
+        ApiRateLimiter.State rounded = SharedStateSlot.decode(SharedStateSlot.encode(new ApiRateLimiter.State(1_700_000_000_123_000_001L, 1_700_000_000_000_000_001L)));
+        Assertions.assertEquals(new ApiRateLimiter.State(1_700_000_000_124_000_000L, 1_700_000_000_001_000_000L), rounded);
+
+        System.setProperty(EntsoeDefines.ENTSOE_RATE_LIMIT_FILE, file.resolveSibling("default").toString());
+        try {
+            Assertions.assertTrue(ApiRateLimiter.defaultLimiter().isShared());
+            // e.g. clients created concurrently, each opens the file
+            List<CompletableFuture<ApiRateLimiter>> limiters = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                limiters.add(CompletableFuture.supplyAsync(ApiRateLimiter::defaultLimiter));
+            }
+            limiters.forEach(limiter -> Assertions.assertTrue(limiter.join().isShared()));
+        } finally {
+            System.clearProperty(EntsoeDefines.ENTSOE_RATE_LIMIT_FILE);
+        }
+        Assertions.assertFalse(ApiRateLimiter.defaultLimiter().isShared());
+    }
+
+    @Test
+    void testBackfillJob(@TempDir Path directory) throws IOException {
+        Path checkpointFile = directory.resolve("checkpoint.txt");
+        AtomicBoolean failing = new AtomicBoolean(true);
+        Set<EntsoeRequest> fetched = Collections.synchronizedSet(new HashSet<>());
+        BiFunction<EntsoeRequest, EntsoeResolution, PriceSeries> fetcher = (request, resolution) -> {
+            Assertions.assertTrue(fetched.add(request), "fetched twice: " + request);
+            if (failing.get() && request.biddingZone() == BiddingZone.AT && request.period().start().getEntsoeDate().equals("20220101")) {
+                fetched.remove(request);
+                throw new EntsoeHttpException(503, null, "HTTP 503");
+            }
+            return new PriceSeries(request.period().periodStart().epochMinute(), resolution, new long[]{1234});
+        };
+        BackfillJob job = BackfillJob.builder(fetcher)
+                .biddingZones(List.of(BiddingZone.DE_LU, BiddingZone.AT))
+                .period(EntsoeDate.fromENTSOEDateString("20210101"), EntsoeDate.fromENTSOEDateString("20230630"))
+                .parallelism(3)
+                .checkpointFile(checkpointFile)
+                .build();
+        Assertions.assertEquals(6, job.getWindows().size());
+
+        List<EntsoeRequest> received = Collections.synchronizedList(new ArrayList<>());
+        BackfillJob.Result result = job.run((window, prices) -> {
+            Assertions.assertEquals(1234, prices.getPrice(0));
+            received.add(window);
+        });
+        Assertions.assertEquals(6, result.windows());
+        Assertions.assertEquals(0, result.skipped());
+        Assertions.assertEquals(5, result.completed());
+        Assertions.assertFalse(result.isComplete());
+        Assertions.assertInstanceOf(EntsoeHttpException.class, result.failed().values().iterator().next());
+        Assertions.assertEquals(5, received.size());
+        Assertions.assertEquals(5, Files.readAllLines(checkpointFile).size());
+
+        failing.set(false);
+        received.clear();
+        result = job.run((window, prices) -> received.add(window));
+        Assertions.assertEquals(5, result.skipped());
+        Assertions.assertEquals(1, result.completed());
+        Assertions.assertTrue(result.isComplete());
+        Assertions.assertEquals(BiddingZone.AT, received.get(0).biddingZone());
+
+        result = job.run((window, prices) -> Assertions.fail());
+        Assertions.assertEquals(6, result.skipped());
+        Assertions.assertEquals(0, result.completed());
+    }
+
+    @Test
+    void testRequestLimiterPause() throws InterruptedException {
+        ApiRateLimiter apiRateLimiter = new ApiRateLimiter(
+                10, Duration.of(1, ChronoUnit.SECONDS),
+                Duration.ZERO);
+        apiRateLimiter.pause(Duration.ofMillis(300));
+        Assertions.assertFalse(apiRateLimiter.tryAcquire());
+        Thread.sleep(400);
+        Assertions.assertTrue(apiRateLimiter.tryAcquire());
+    }
+
+    @Test
+    void testAcknowledgement() throws IOException {
+        for (TimeSeriesParser parser : List.of(new StaxTimeSeriesParser(), new DomTimeSeriesParser())) {
+            try (InputStream in = getFixture("A44_acknowledgement_no_data.xml")) {
+                EntsoeAcknowledgementException e = Assertions.assertThrows(EntsoeNoDataException.class,
+                        () -> parser.parse(in, EntsoeResolution.PT60M, (epochMinute, price) -> Assertions.fail()));
+                Assertions.assertEquals("999", e.getReasonCode());
+                Assertions.assertTrue(e.getReasonText().startsWith("No matching data found"));
+            }
+        }
+        Assertions.assertFalse(EntsoeAcknowledgementException.of("999", "Invalid parameter") instanceof EntsoeNoDataException);
+    }
+
+    @Test
+    void testRetryPolicy() {
+        RetryPolicy retryPolicy = new RetryPolicy(4, Duration.ofSeconds(1), Duration.ofSeconds(3));
+        Assertions.assertTrue(retryPolicy.isRetryable(429));
+        Assertions.assertTrue(retryPolicy.isRetryable(503));
+        Assertions.assertFalse(retryPolicy.isRetryable(200));
+        Assertions.assertFalse(retryPolicy.isRetryable(400));
+        for (int i = 0; i < 100; i++) {
+            Duration backoff = retryPolicy.getBackoff(1, null);
+            Assertions.assertTrue(backoff.toMillis() >= 500 && backoff.toMillis() <= 1000, backoff.toString());
+            backoff = retryPolicy.getBackoff(3, null);
+            Assertions.assertTrue(backoff.toMillis() >= 1500 && backoff.toMillis() <= 3000, backoff.toString());
+        }
+        Assertions.assertNull(retryPolicy.getBackoff(4, null));
+        Assertions.assertEquals(Duration.ofSeconds(2), retryPolicy.getBackoff(1, Duration.ofSeconds(2)));
+        Assertions.assertNull(retryPolicy.getBackoff(1, Duration.ofSeconds(60)));
+        Assertions.assertNull(RetryPolicy.NONE.getBackoff(1, null));
+
+        Clock clock = Clock.fixed(Instant.parse("2023-01-01T10:00:00Z"), EntsoeDate.UTC_ZONE);
+        Assertions.assertEquals(Duration.ofSeconds(120),
+                RetryPolicy.getRetryAfter(HttpHeaders.of(Map.of("Retry-After", List.of("120")), (name, value) -> true), clock));
+        Assertions.assertEquals(Duration.ofSeconds(90),
+                RetryPolicy.getRetryAfter(HttpHeaders.of(Map.of("Retry-After", List.of("Sun, 01 Jan 2023 10:01:30 GMT")), (name, value) -> true), clock));
+        Assertions.assertNull(RetryPolicy.getRetryAfter(HttpHeaders.of(Map.of("Retry-After", List.of("soon")), (name, value) -> true), clock));
+        Assertions.assertNull(RetryPolicy.getRetryAfter(HttpHeaders.of(Map.of(), (name, value) -> true), clock));
+    }
+
+    @Test
+    void testCircuitBreaker() {
+        AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2023-01-01T10:00:00Z"));
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, Duration.ofMinutes(1), getClock(now));
+        circuitBreaker.acquire();
+        circuitBreaker.onFailure();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        circuitBreaker.acquire();
+        circuitBreaker.onFailure();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        EntsoeCircuitOpenException e = Assertions.assertThrows(EntsoeCircuitOpenException.class, circuitBreaker::acquire);
+        Assertions.assertEquals(Duration.ofMinutes(1), e.getRemaining());
+
+        now.set(now.get().plusSeconds(61));
+        circuitBreaker.acquire();
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        Assertions.assertThrows(EntsoeCircuitOpenException.class, circuitBreaker::acquire);
+        circuitBreaker.onFailure();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        now.set(now.get().plusSeconds(61));
+        circuitBreaker.acquire();
+        circuitBreaker.onSuccess();
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        circuitBreaker.acquire();
+        circuitBreaker.acquire();
+    }
+
+    @Test
+    void testMetrics() {
+        SimpleEntsoeMetrics.Histogram histogram = new SimpleEntsoeMetrics.Histogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        Assertions.assertEquals(1000, histogram.getCount());
+        Assertions.assertEquals(1_000_000, histogram.getMax());
+        Assertions.assertEquals(500_500, histogram.getMean());
+        long p50 = histogram.getPercentile(0.5);
+        Assertions.assertTrue(p50 >= 500_000 && p50 <= 625_000, "p50=" + p50);
+        Assertions.assertEquals(1_000_000, histogram.getPercentile(1));
+        Assertions.assertEquals(0, new SimpleEntsoeMetrics.Histogram().getPercentile(0.99));
+
+        SimpleEntsoeMetrics metrics = new SimpleEntsoeMetrics();
+        EntsoeRequest request = EntsoeRequest.of(BiddingZone.DE_LU, new EntsoeDate(NEW_YEAR_2023));
+        for (EntsoeMetrics m : List.of(metrics, new JfrEntsoeMetrics(), EntsoeMetrics.NOOP)) {
+            m.onRequest(request, 200, 1000);
+            m.onRequest(request, 200, 2000);
+            m.onRequest(request, 503, 3000);
+            m.onRequestFailed(request, new IOException("timeout"), 4000);
+            m.onBytesReceived(request, 4096);
+            m.onRateLimiterWait(5000, 3);
+            m.onParse(EntsoeResolution.PT60M, 24, 6000);
+            m.onCacheAccess(true);
+            m.onCacheAccess(true);
+            m.onCacheAccess(true);
+            m.onCacheAccess(false);
+        }
+        Assertions.assertEquals(Map.of(200, 2L, 503, 1L), metrics.getStatusCounts());
+        Assertions.assertEquals(1, metrics.getFailedRequests());
+        Assertions.assertEquals(4, metrics.getRequestLatency().getCount());
+        Assertions.assertEquals(4096, metrics.getBytesReceived());
+        Assertions.assertEquals(3, metrics.getMaxQueueDepth());
+        Assertions.assertEquals(24, metrics.getPointsParsed());
+        Assertions.assertEquals(0.75, metrics.getCacheHitRatio());
+        metrics.onRequest(request, 999, 0); // not a valid HTTP status, still counted
+        Assertions.assertEquals(Map.of(200, 2L, 503, 1L, 999, 1L), metrics.getStatusCounts());
+        Assertions.assertNotNull(metrics.toString());
+
+        ApiRateLimiter apiRateLimiter = new ApiRateLimiter(1, Duration.ofMillis(200), Duration.ZERO);
+        apiRateLimiter.acquire();
+        CompletableFuture<Void> permit = apiRateLimiter.acquireAsync();
+        Assertions.assertEquals(1, apiRateLimiter.getQueueDepth());
+        permit.join();
+        Assertions.assertEquals(0, apiRateLimiter.getQueueDepth());
+    }
+
+    @Test
+    void testContentEncoding() throws IOException {
+        byte[] document;
+        try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+            document = in.readAllBytes();
+        }
+        PriceSeries expected = new StaxTimeSeriesParser().parse(new ByteArrayInputStream(document), EntsoeResolution.PT15M);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(document);
+        }
+        ByteArrayOutputStream deflate = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(deflate)) {
+            out.write(document);
+        }
+        Map<String, byte[]> bodies = Map.of("gzip", gzip.toByteArray(), "deflate", deflate.toByteArray(), "identity", document);
+        for (Map.Entry<String, byte[]> body : bodies.entrySet()) {
+            HttpResponse.ResponseInfo responseInfo = getResponseInfo(body.getKey());
+            InputStream in = receive(ContentEncoding.ofInputStream().apply(responseInfo), body.getValue());
+            Assertions.assertEquals(expected, new StaxTimeSeriesParser().parse(in, EntsoeResolution.PT15M), body.getKey());
+            String raw = receive(ContentEncoding.ofString().apply(responseInfo), body.getValue());
+            Assertions.assertEquals(new String(document, StandardCharsets.UTF_8), raw, body.getKey());
+        }
+        Assertions.assertTrue(gzip.size() < document.length / 4);
+    }
+
+    @Test
+    void testRecordAndReplay(@TempDir Path directory) throws IOException {
+        byte[] document;
+        try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+            document = in.readAllBytes();
+        }
+        PriceSeries expected = new StaxTimeSeriesParser().parse(new ByteArrayInputStream(document), EntsoeResolution.PT60M);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(document);
+        }
+        EntsoeRequest request = EntsoeRequest.of(BiddingZone.DE_LU, new EntsoeDate(NEW_YEAR_2023));
+        Path replayDirectory = Files.createDirectory(directory.resolve("replay"));
+        Path file = Recording.getFile(replayDirectory, request);
+        new Recording(200, getResponseInfo("gzip").headers(), gzip.toByteArray()).write(file);
+
+        EntsoeClient entsoeClient = EntsoeClient.builder().securityToken("token")
+                .transport(new ReplayTransport(replayDirectory)).build();
+        PriceSeries priceSeries = entsoeClient.getPriceSeries(request, EntsoeResolution.PT60M);
+        Assertions.assertEquals(24, priceSeries.size());
+        Assertions.assertEquals(expected, priceSeries);
+
+        Path recordDirectory = directory.resolve("record");
+        RecordingTransport recorder = new RecordingTransport(new ReplayTransport(replayDirectory), recordDirectory);
+        entsoeClient = EntsoeClient.builder().securityToken("token").transport(recorder).build();
+        Assertions.assertEquals(expected, entsoeClient.getPriceSeries(request, EntsoeResolution.PT60M));
+        recorder.flush();
+        Assertions.assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(Recording.getFile(recordDirectory, request)));
+
+        // a status that the retry policy of the client does not retry is recorded
+        RetryPolicy noRetries = new RetryPolicy(1, Duration.ZERO, Duration.ZERO) {
+            @Override
+            public boolean isRetryable(int statusCode) {
+                return false;
+            }
+        };
+        Path failureDirectory = directory.resolve("failure");
+        RecordingTransport failureRecorder = new RecordingTransport(new ReplayTransport(replayDirectory, Duration.ZERO, 1.0),
+                failureDirectory, noRetries, Runnable::run);
+        EntsoeClient failing = EntsoeClient.builder().securityToken("token").transport(failureRecorder).retryPolicy(noRetries).build();
+        Assertions.assertThrows(EntsoeHttpException.class, () -> failing.getPriceSeries(request, EntsoeResolution.PT60M));
+        failureRecorder.flush();
+        Assertions.assertEquals(503, Recording.read(Recording.getFile(failureDirectory, request)).getStatusCode());
+
+        EntsoeClient missing = EntsoeClient.builder().securityToken("token")
+                .transport(new ReplayTransport(replayDirectory))
+                .build();
+        EntsoeHttpException e = Assertions.assertThrows(EntsoeHttpException.class,
+                () -> missing.getPriceSeries(EntsoeRequest.of(BiddingZone.DE_LU, new EntsoeDate(NEW_YEAR_1900)), EntsoeResolution.PT60M));
+        Assertions.assertEquals(404, e.getStatusCode());
+
+        EntsoeClient unavailable = EntsoeClient.builder().securityToken("token")
+                .transport(new ReplayTransport(replayDirectory, Duration.ofMillis(1), 1.0))
+                .retryPolicy(new RetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(1)))
+                .build();
+        e = Assertions.assertThrows(EntsoeHttpException.class, () -> unavailable.getPriceSeries(request, EntsoeResolution.PT60M));
+        Assertions.assertEquals(503, e.getStatusCode());
+    }
+
+    @Test
+    void testPriceServer(@TempDir Path directory) throws IOException {
+        byte[] document;
+        try (InputStream in = getFixture("A44_DE_LU_20230101.xml")) {
+            document = in.readAllBytes();
+        }
+        EntsoeRequest request = EntsoeRequest.of(BiddingZone.DE_LU, new EntsoeDate(NEW_YEAR_2023));
+        new Recording(200, getResponseInfo("identity").headers(), document).write(Recording.getFile(directory, request));
+        EntsoeRequest tomorrow = EntsoeRequest.of(BiddingZone.DE_LU, new EntsoeDate(ZonedDateTime.now(EntsoeDate.UTC_ZONE).plusDays(1)));
+        new Recording(200, getResponseInfo("identity").headers(), document).write(Recording.getFile(directory, tomorrow));
+        AtomicLong upstreamRequests = new AtomicLong();
+        ReplayTransport replay = new ReplayTransport(directory);
+        EntsoeClient upstream = EntsoeClient.builder().securityToken("token").transport(new EntsoeTransport() {
+            @Override
+            public <T> CompletableFuture<HttpResponse<T>> send(EntsoeRequest entsoeRequest, HttpRequest httpRequest, HttpResponse.BodyHandler<T> bodyHandler) {
+                upstreamRequests.incrementAndGet();
+                return replay.send(entsoeRequest, httpRequest, bodyHandler);
+            }
+        }).build();
+        try (PriceServer server = PriceServer.builder(upstream).address(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).build()) {
+            server.start();
+            URI sidecar = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+            EntsoeClient entsoeClient = EntsoeClient.builder().sidecar(sidecar).build();
+            PriceSeries expected = new StaxTimeSeriesParser().parse(new ByteArrayInputStream(document), EntsoeResolution.PT60M);
+            Assertions.assertEquals(expected, entsoeClient.getPriceSeries(request, EntsoeResolution.PT60M));
+            Assertions.assertEquals(expected, entsoeClient.getPriceSeries(request, EntsoeResolution.PT60M));
+            Assertions.assertEquals(1, upstreamRequests.get());
+            Assertions.assertTrue(entsoeClient.getRequestURL(request).startsWith(sidecar + "/api?documentType=A44&"));
+            Assertions.assertFalse(entsoeClient.getApiRateLimiter().isShared());
+            Assertions.assertEquals(Integer.MAX_VALUE, entsoeClient.getApiRateLimiter().getMaxRequestsPerDuration());
+
+            EntsoeHttpException e = Assertions.assertThrows(EntsoeHttpException.class,
+                    () -> entsoeClient.getPriceSeries(EntsoeRequest.of(BiddingZone.DE_LU, new EntsoeDate(NEW_YEAR_1900)), EntsoeResolution.PT60M));
+            Assertions.assertEquals(404, e.getStatusCode());
+            Assertions.assertEquals(2, upstreamRequests.get());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> PriceServer.parseRequest("documentType=A44&in_Domain=unknown"));
+
+            HttpClient httpClient = HttpClient.newHttpClient();
+            HttpResponse<Stream<String>> events = httpClient.send(
+                    HttpRequest.newBuilder(sidecar.resolve("/events")).build(), HttpResponse.BodyHandlers.ofLines());
+            Iterator<String> lines = events.body().iterator();
+            Assertions.assertEquals(": connected", lines.next());
+            entsoeClient.getPriceSeries(tomorrow, EntsoeResolution.PT60M);
+            Assertions.assertEquals(3, upstreamRequests.get());
+            server.onPublished(BiddingZone.DE_LU, EntsoeResolution.PT60M, LocalDate.of(2023, 1, 2));
+            Assertions.assertEquals("", lines.next());
+            Assertions.assertEquals("event: published", lines.next());
+            Assertions.assertEquals("data: {\"biddingZone\":\"DE_LU\",\"resolution\":\"PT60M\",\"day\":\"2023-01-02\"}", lines.next());
+            // the publication dropped the document of tomorrow, the document of a past day is final
+            Assertions.assertEquals(expected, entsoeClient.getPriceSeries(request, EntsoeResolution.PT60M));
+            entsoeClient.getPriceSeries(tomorrow, EntsoeResolution.PT60M);
+            Assertions.assertEquals(4, upstreamRequests.get());
+            server.evictExpired();
+            Assertions.assertEquals(2, server.getCacheSize());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Assertions.fail(e);
+        }
+
+        // expired documents are evicted, not only replaced on the next request for them, final documents are kept
+        try (PriceServer server = PriceServer.builder(upstream).address(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                .cacheTime(Duration.ZERO).build()) {
+            server.start();
+            EntsoeClient entsoeClient = EntsoeClient.builder().sidecar(URI.create("http://127.0.0.1:" + server.getAddress().getPort())).build();
+            entsoeClient.getPriceSeries(request, EntsoeResolution.PT60M);
+            entsoeClient.getPriceSeries(tomorrow, EntsoeResolution.PT60M);
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (server.getCacheSize() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            Assertions.assertEquals(1, server.getCacheSize());
+            entsoeClient.getPriceSeries(request, EntsoeResolution.PT60M);
+            Assertions.assertEquals(6, upstreamRequests.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Assertions.fail(e);
+        }
+    }
+
+    private static HttpResponse.ResponseInfo getResponseInfo(String contentEncoding) {
+        HttpHeaders headers = HttpHeaders.of(Map.of("Content-Encoding", List.of(contentEncoding),
+                "Content-Type", List.of("text/xml; charset=UTF-8")), (name, value) -> true);
+        return new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return 200;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        };
+    }
+
+    private static <T> T receive(HttpResponse.BodySubscriber<T> subscriber, byte[] body) {
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        subscriber.onNext(List.of(ByteBuffer.wrap(body)));
+        subscriber.onComplete();
+        return subscriber.getBody().toCompletableFuture().join();
+    }
+
     @Test
     void testMisc() {
         Assertions.assertEquals("    2", Utils.padIntegerWithSpaces(2, 5));
         Assertions.assertEquals("00012", Utils.padIntegerWithZeros(12, 5));
+        Assertions.assertEquals("-0012", Utils.padIntegerWithZeros(-12, 5));
+        Assertions.assertEquals("123456", Utils.padIntegerWithZeros(123456, 5));
+        Assertions.assertEquals("  -12", Utils.padIntegerWithSpaces(-12, 5));
         EntsoeDate entsoeDate = EntsoeDate.fromENTSOEDateString("202308031200");
         String prettyString = entsoeDate.toPrettyUTCString();
         Assertions.assertEquals("2023-08-03 12:00", prettyString);